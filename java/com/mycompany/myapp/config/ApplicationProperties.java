@@ -1,6 +1,10 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Biblio BE.
@@ -9,4 +13,286 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Overdue overdue = new Overdue();
+
+    private final Cache cache = new Cache();
+
+    private final Security security = new Security();
+
+    private final RateLimit rateLimit = new RateLimit();
+
+    public Overdue getOverdue() {
+        return overdue;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public static class Overdue {
+
+        private String cron = "0 0 7 * * ?";
+
+        private int batchSize = 50;
+
+        private Duration batchPause = Duration.ofSeconds(1);
+
+        private Duration lease = Duration.ofHours(1);
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getBatchPause() {
+            return batchPause;
+        }
+
+        public void setBatchPause(Duration batchPause) {
+            this.batchPause = batchPause;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+    }
+
+    public static class Security {
+
+        private int verifiedTokenCacheSize = 10_000;
+
+        private Duration refreshTokenValidity = Duration.ofDays(1);
+
+        private int passwordHashingThreads;
+
+        private int passwordHashingQueueCapacity = 64;
+
+        private Duration passwordHashingRetryAfter = Duration.ofSeconds(2);
+
+        /**
+         * @return the maximum number of verified JWTs kept with their authentication, {@code 0} to verify every request.
+         */
+        public int getVerifiedTokenCacheSize() {
+            return verifiedTokenCacheSize;
+        }
+
+        public void setVerifiedTokenCacheSize(int verifiedTokenCacheSize) {
+            this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+        }
+
+        /**
+         * @return the validity of the refresh tokens issued without remember-me, which use
+         * {@code jhipster.security.authentication.jwt.token-validity-in-seconds-for-remember-me} otherwise.
+         */
+        public Duration getRefreshTokenValidity() {
+            return refreshTokenValidity;
+        }
+
+        public void setRefreshTokenValidity(Duration refreshTokenValidity) {
+            this.refreshTokenValidity = refreshTokenValidity;
+        }
+
+        /**
+         * @return the number of threads hashing the passwords, {@code 0} for the number of processors.
+         */
+        public int getPasswordHashingThreads() {
+            return passwordHashingThreads;
+        }
+
+        public void setPasswordHashingThreads(int passwordHashingThreads) {
+            this.passwordHashingThreads = passwordHashingThreads;
+        }
+
+        /**
+         * @return the number of passwords waiting to be hashed, beyond which the requests are rejected.
+         */
+        public int getPasswordHashingQueueCapacity() {
+            return passwordHashingQueueCapacity;
+        }
+
+        public void setPasswordHashingQueueCapacity(int passwordHashingQueueCapacity) {
+            this.passwordHashingQueueCapacity = passwordHashingQueueCapacity;
+        }
+
+        /**
+         * @return the delay after which the clients may retry a request rejected because the passwords hashing was
+         * saturated.
+         */
+        public Duration getPasswordHashingRetryAfter() {
+            return passwordHashingRetryAfter;
+        }
+
+        public void setPasswordHashingRetryAfter(Duration passwordHashingRetryAfter) {
+            this.passwordHashingRetryAfter = passwordHashingRetryAfter;
+        }
+    }
+
+    public static class RateLimit {
+
+        private boolean shared;
+
+        private final Bucket byIp = new Bucket(20, Duration.ofMinutes(1));
+
+        private final Bucket byLogin = new Bucket(5, Duration.ofMinutes(1));
+
+        /**
+         * @return whether the buckets are stored in MongoDB and shared by all the nodes, rather than in memory.
+         */
+        public boolean isShared() {
+            return shared;
+        }
+
+        public void setShared(boolean shared) {
+            this.shared = shared;
+        }
+
+        /**
+         * @return the bucket of each client IP, on the authentication, registration and password reset requests.
+         */
+        public Bucket getByIp() {
+            return byIp;
+        }
+
+        /**
+         * @return the bucket of each login, or email for the registrations and the password resets, from each client IP.
+         */
+        public Bucket getByLogin() {
+            return byLogin;
+        }
+    }
+
+    public static class Bucket {
+
+        private int capacity;
+
+        private Duration refillPeriod;
+
+        public Bucket(int capacity, Duration refillPeriod) {
+            this.capacity = capacity;
+            this.refillPeriod = refillPeriod;
+        }
+
+        /**
+         * @return the number of requests allowed at once, {@code 0} not to limit the requests.
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * @return the time to refill an empty bucket.
+         */
+        public Duration getRefillPeriod() {
+            return refillPeriod;
+        }
+
+        public void setRefillPeriod(Duration refillPeriod) {
+            this.refillPeriod = refillPeriod;
+        }
+    }
+
+    public static class Cache {
+
+        private String directory;
+
+        private final Map<String, CachePolicy> policies = new HashMap<>();
+
+        /**
+         * @return the directory of the disk tiers, which survive restarts, or {@code null} when the caches have
+         * no disk tier.
+         */
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * @return the policies of the caches, by cache name. The caches without a policy follow
+         * {@code jhipster.cache.ehcache}.
+         */
+        public Map<String, CachePolicy> getPolicies() {
+            return policies;
+        }
+    }
+
+    public static class CachePolicy {
+
+        private long maxEntries = 1000;
+
+        private Duration timeToLive = Duration.ofHours(1);
+
+        private DataSize offHeap;
+
+        private DataSize disk;
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        /**
+         * @return the size of the off-heap tier, or {@code null} when the cache has none.
+         */
+        public DataSize getOffHeap() {
+            return offHeap;
+        }
+
+        public void setOffHeap(DataSize offHeap) {
+            this.offHeap = offHeap;
+        }
+
+        /**
+         * @return the size of the persistent disk tier, or {@code null} when the cache has none.
+         */
+        public DataSize getDisk() {
+            return disk;
+        }
+
+        public void setDisk(DataSize disk) {
+            this.disk = disk;
+        }
+    }
+}
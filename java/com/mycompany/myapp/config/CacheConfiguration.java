@@ -1,8 +1,17 @@
 package com.mycompany.myapp.config;
 
+import java.io.File;
+import java.io.Serializable;
 import java.time.Duration;
+import java.util.Map;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.info.BuildProperties;
@@ -10,6 +19,7 @@ import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.*;
+import org.springframework.util.unit.DataSize;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
@@ -20,17 +30,86 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final Map<String, ApplicationProperties.CachePolicy> cachePolicies;
+    private final String cacheDirectory;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
 
         jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+            jcacheConfiguration(Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()), Duration.ofSeconds(ehcache.getTimeToLiveSeconds()));
+        cachePolicies = applicationProperties.getCache().getPolicies();
+        cacheDirectory = applicationProperties.getCache().getDirectory();
+        cachePolicies.forEach(this::validate);
+    }
+
+    private static <T> javax.cache.configuration.Configuration<T, T> jcacheConfiguration(
+        Class<T> type,
+        ResourcePoolsBuilder resourcePools,
+        Duration timeToLive
+    ) {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(type, type, resourcePools)
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))
+                .build()
+        );
+    }
+
+    /**
+     * Build the configuration of a cache from its policy: the heap tier holds {@code maxEntries} entries, and the
+     * optional off-heap and disk tiers are sized in bytes. Entries beyond the heap tier are serialized, so the keys
+     * and values of a tiered cache must be {@link Serializable}.
+     */
+    private static javax.cache.configuration.Configuration<?, ?> jcacheConfiguration(ApplicationProperties.CachePolicy policy) {
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(policy.getMaxEntries());
+        if (policy.getOffHeap() == null && policy.getDisk() == null) {
+            return jcacheConfiguration(Object.class, resourcePools, policy.getTimeToLive());
+        }
+        if (policy.getOffHeap() != null) {
+            resourcePools = resourcePools.offheap(policy.getOffHeap().toBytes(), MemoryUnit.B);
+        }
+        if (policy.getDisk() != null) {
+            resourcePools = resourcePools.disk(policy.getDisk().toBytes(), MemoryUnit.B, true);
+        }
+        return jcacheConfiguration(Serializable.class, resourcePools, policy.getTimeToLive());
+    }
+
+    private void validate(String cacheName, ApplicationProperties.CachePolicy policy) {
+        if (policy.getMaxEntries() <= 0) {
+            throw new IllegalStateException("Cache " + cacheName + ": max-entries must be positive");
+        }
+        DataSize offHeap = policy.getOffHeap();
+        if (offHeap != null && offHeap.compareTo(DataSize.ofMegabytes(1)) < 0) {
+            throw new IllegalStateException("Cache " + cacheName + ": off-heap must be at least 1MB, was " + offHeap);
+        }
+        DataSize disk = policy.getDisk();
+        if (disk != null) {
+            if (cacheDirectory == null) {
+                throw new IllegalStateException("Cache " + cacheName + ": a disk tier needs application.cache.directory");
+            }
+            if (disk.compareTo(offHeap == null ? DataSize.ofMegabytes(1) : offHeap) <= 0) {
+                throw new IllegalStateException("Cache " + cacheName + ": disk must be larger than off-heap, was " + disk);
+            }
+        }
+    }
+
+    /**
+     * The JCache manager, persistent when {@code application.cache.directory} is set so that the disk tiers are
+     * recovered on restart. It is closed on shutdown, which flushes the disk tiers. The recovered entries are brought
+     * up to date by the {@link com.mycompany.myapp.repository.CacheInvalidationBus}, which resumes from the last
+     * invalidation applied before the restart.
+     */
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        ClassLoader classLoader = getClass().getClassLoader();
+        DefaultConfiguration configuration = cacheDirectory == null
+            ? new DefaultConfiguration(classLoader)
+            : new DefaultConfiguration(classLoader, new DefaultPersistenceConfiguration(new File(cacheDirectory)));
+        javax.cache.CacheManager cm = provider.getCacheManager(provider.getDefaultURI(), configuration);
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(cm));
+        return cm;
     }
 
     @Bean
@@ -38,6 +117,11 @@ public class CacheConfiguration {
         return cm -> {
             createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.LivreRepository.LIVRES_BY_ID_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.EmpruntRepository.EMPRUNTS_BY_ID_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.LoanerRepository.LOANERS_BY_ID_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.CategoryRepository.CATEGORIES_BY_ID_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.RefreshTokenRepository.REFRESH_TOKENS_BY_ID_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -47,8 +131,14 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            ApplicationProperties.CachePolicy policy = cachePolicies.get(cacheName);
+            javax.cache.configuration.Configuration<?, ?> configuration = policy == null
+                ? jcacheConfiguration
+                : jcacheConfiguration(policy);
+            cm.createCache(cacheName, configuration);
         }
+        // hits, misses and evictions are published to Micrometer from the JCache statistics
+        cm.enableStatistics(cacheName, true);
     }
 
     @Autowired(required = false)
@@ -1,7 +1,11 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.management.SecurityMetersService;
 import com.mycompany.myapp.security.*;
 import com.mycompany.myapp.security.jwt.*;
+import com.mycompany.myapp.security.ratelimit.RateLimitFilter;
+import com.mycompany.myapp.security.ratelimit.RateLimiter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
@@ -16,6 +20,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 import org.springframework.web.filter.CorsFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.zalando.problem.spring.web.advice.security.SecurityProblemSupport;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -26,6 +31,14 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     private final JHipsterProperties jHipsterProperties;
 
+    private final ApplicationProperties applicationProperties;
+
+    private final SecurityMetersService securityMetersService;
+
+    private final RateLimiter rateLimiter;
+
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
     private final TokenProvider tokenProvider;
 
     private final CorsFilter corsFilter;
@@ -35,17 +48,35 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
         TokenProvider tokenProvider,
         CorsFilter corsFilter,
         JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        SecurityMetersService securityMetersService,
+        RateLimiter rateLimiter,
+        @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
         SecurityProblemSupport problemSupport
     ) {
         this.tokenProvider = tokenProvider;
         this.corsFilter = corsFilter;
         this.problemSupport = problemSupport;
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+        this.securityMetersService = securityMetersService;
+        this.rateLimiter = rateLimiter;
+        this.handlerExceptionResolver = handlerExceptionResolver;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        ApplicationProperties.Security security = applicationProperties.getSecurity();
+        int threads = security.getPasswordHashingThreads() > 0
+            ? security.getPasswordHashingThreads()
+            : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(),
+            threads,
+            security.getPasswordHashingQueueCapacity(),
+            security.getPasswordHashingRetryAfter(),
+            securityMetersService
+        );
     }
 
     @Override
@@ -60,6 +91,7 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
             .csrf()
             .disable()
             .addFilterBefore(corsFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(new RateLimitFilter(rateLimiter, handlerExceptionResolver), UsernamePasswordAuthenticationFilter.class)
             .exceptionHandling()
                 .authenticationEntryPoint(problemSupport)
                 .accessDeniedHandler(problemSupport)
@@ -79,6 +111,7 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
         .and()
             .authorizeRequests()
             .antMatchers("/api/authenticate").permitAll()
+            .antMatchers("/api/authenticate/refresh").permitAll()
             .antMatchers("/api/register").permitAll()
             .antMatchers("/api/activate").permitAll()
             .antMatchers("/api/account/reset-password/init").permitAll()
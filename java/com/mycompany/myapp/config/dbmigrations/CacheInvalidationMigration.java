@@ -0,0 +1,45 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mycompany.myapp.repository.CacheInvalidationBus;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import java.util.Date;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Creates the capped collection of the {@link CacheInvalidationBus}.
+ * <p>
+ * The collection is seeded with a first document, as a tailable cursor on an empty collection is closed at once.
+ */
+@ChangeUnit(id = "cache-invalidation-collection", order = "006")
+public class CacheInvalidationMigration {
+
+    private final MongoTemplate template;
+
+    public CacheInvalidationMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        if (!template.collectionExists(CacheInvalidationBus.COLLECTION)) {
+            template.createCollection(
+                CacheInvalidationBus.COLLECTION,
+                CollectionOptions
+                    .empty()
+                    .capped()
+                    .size(CacheInvalidationBus.COLLECTION_SIZE)
+                    .maxDocuments(CacheInvalidationBus.COLLECTION_MAX_DOCUMENTS)
+            );
+        }
+        template.getCollection(CacheInvalidationBus.COLLECTION).insertOne(new Document("node", "migration").append("at", new Date()));
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        template.dropCollection(CacheInvalidationBus.COLLECTION);
+    }
+}
@@ -0,0 +1,38 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Moves the loan history out of the loaner documents: the emprunts are queried by loaner instead.
+ */
+@ChangeUnit(id = "emprunt-history-by-loaner", order = "002")
+public class EmpruntHistoryMigration {
+
+    private static final String LOANER_START_INDEX = "loaner_start";
+
+    private final MongoTemplate template;
+
+    public EmpruntHistoryMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        template
+            .indexOps("emprunt")
+            .ensureIndex(new Index().on("loaner", Sort.Direction.ASC).on("start", Sort.Direction.DESC).named(LOANER_START_INDEX));
+        template.updateMulti(new Query(), new Update().unset("emprunts"), "loaner");
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        template.indexOps("emprunt").dropIndex(LOANER_START_INDEX);
+    }
+}
@@ -0,0 +1,62 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mycompany.myapp.service.util.SearchText;
+import com.mongodb.DBRef;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Copies the keywords of the livre names onto the emprunts, and indexes them for the emprunt search.
+ */
+@ChangeUnit(id = "emprunt-livre-keywords", order = "003")
+public class EmpruntSearchMigration {
+
+    private static final String LIVRE_KEYWORDS_START_INDEX = "livre_keywords_start";
+
+    private static final String LIVRE_INDEX = "livre";
+
+    private final MongoTemplate template;
+
+    public EmpruntSearchMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        template
+            .indexOps("emprunt")
+            .ensureIndex(
+                new Index().on("livre_keywords", Sort.Direction.ASC).on("start", Sort.Direction.DESC).named(LIVRE_KEYWORDS_START_INDEX)
+            );
+        template.indexOps("emprunt").ensureIndex(new Index().on("livre", Sort.Direction.ASC).named(LIVRE_INDEX));
+
+        Query livres = new Query();
+        livres.fields().include("name");
+        try (CloseableIterator<Document> iterator = template.stream(livres, Document.class, "livre")) {
+            iterator.forEachRemaining(livre ->
+                template.updateMulti(
+                    Query.query(where("livre").is(new DBRef("livre", livre.get("_id")))),
+                    new Update().set("livre_keywords", SearchText.keywords(livre.getString("name"))),
+                    "emprunt"
+                )
+            );
+        }
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        template.indexOps("emprunt").dropIndex(LIVRE_KEYWORDS_START_INDEX);
+        template.indexOps("emprunt").dropIndex(LIVRE_INDEX);
+        template.updateMulti(new Query(), new Update().unset("livre_keywords"), "emprunt");
+    }
+}
@@ -0,0 +1,50 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mycompany.myapp.repository.EntityVersion;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import java.util.List;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Gives a first version to the library entities: an entity without version would be inserted again on save.
+ */
+@ChangeUnit(id = "entity-versions", order = "007")
+public class EntityVersionMigration {
+
+    private static final List<String> COLLECTIONS = List.of("livre", "emprunt", "loaner", "category");
+
+    private final MongoTemplate template;
+
+    public EntityVersionMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        for (String collection : COLLECTIONS) {
+            template.updateMulti(
+                query(where(EntityVersion.VERSION_FIELD).exists(false)),
+                new Update().set(EntityVersion.VERSION_FIELD, 0L).currentDate(EntityVersion.LAST_MODIFIED_DATE_FIELD),
+                collection
+            );
+        }
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        for (String collection : COLLECTIONS) {
+            template.updateMulti(
+                new Query(),
+                new Update().unset(EntityVersion.VERSION_FIELD).unset(EntityVersion.LAST_MODIFIED_DATE_FIELD),
+                collection
+            );
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Indexes the livres by name and author, to find the duplicates of imported livres.
+ */
+@ChangeUnit(id = "livre-name-author-index", order = "005")
+public class LivreImportMigration {
+
+    private static final String NAME_AUTHOR_INDEX = "name_author";
+
+    private final MongoTemplate template;
+
+    public LivreImportMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        template
+            .indexOps("livre")
+            .ensureIndex(new Index().on("name", Sort.Direction.ASC).on("author", Sort.Direction.ASC).named(NAME_AUTHOR_INDEX));
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        template.indexOps("livre").dropIndex(NAME_AUTHOR_INDEX);
+    }
+}
@@ -0,0 +1,43 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Indexes the open emprunts by loaner and id, for the pages of the overdue scan. The end date closes the key,
+ * so that the emprunts not overdue yet are filtered out of the index without being read.
+ */
+@ChangeUnit(id = "emprunt-overdue-index", order = "004")
+public class OverdueEmpruntMigration {
+
+    private static final String OVERDUE_INDEX = "returned_at_loaner_id_end";
+
+    private final MongoTemplate template;
+
+    public OverdueEmpruntMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        template
+            .indexOps("emprunt")
+            .ensureIndex(
+                new Index()
+                    .on("returned_at", Sort.Direction.ASC)
+                    .on("loaner", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .on("end", Sort.Direction.ASC)
+                    .named(OVERDUE_INDEX)
+            );
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        template.indexOps("emprunt").dropIndex(OVERDUE_INDEX);
+    }
+}
@@ -0,0 +1,36 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import java.time.Duration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Deletes the shared rate limiting buckets once they are full again.
+ */
+@ChangeUnit(id = "rate-limit-ttl-index", order = "010")
+public class RateLimitMigration {
+
+    private static final String EXPIRES_AT_INDEX = "expires_at_ttl";
+
+    private final MongoTemplate template;
+
+    public RateLimitMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        template
+            .indexOps("rate_limit")
+            .ensureIndex(new Index().on("expires_at", Sort.Direction.ASC).expire(Duration.ZERO).named(EXPIRES_AT_INDEX));
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        template.indexOps("rate_limit").dropIndex(EXPIRES_AT_INDEX);
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import java.time.Duration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Expires the refresh tokens, and indexes them by family for the revocation of a family.
+ */
+@ChangeUnit(id = "refresh-token-indexes", order = "009")
+public class RefreshTokenMigration {
+
+    private static final String COLLECTION = "refresh_token";
+
+    private static final String EXPIRES_AT_INDEX = "expires_at_ttl";
+
+    private static final String FAMILY_INDEX = "family";
+
+    private final MongoTemplate template;
+
+    public RefreshTokenMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        template
+            .indexOps(COLLECTION)
+            .ensureIndex(new Index().on("expires_at", Sort.Direction.ASC).expire(Duration.ZERO).named(EXPIRES_AT_INDEX));
+        template.indexOps(COLLECTION).ensureIndex(new Index().on("family", Sort.Direction.ASC).named(FAMILY_INDEX));
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        template.indexOps(COLLECTION).dropIndex(EXPIRES_AT_INDEX);
+        template.indexOps(COLLECTION).dropIndex(FAMILY_INDEX);
+    }
+}
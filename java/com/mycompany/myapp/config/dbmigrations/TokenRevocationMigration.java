@@ -0,0 +1,36 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import java.time.Duration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Expires the token revocations once the tokens they revoke have expired.
+ */
+@ChangeUnit(id = "token-revocation-ttl-index", order = "008")
+public class TokenRevocationMigration {
+
+    private static final String EXPIRES_AT_INDEX = "expires_at_ttl";
+
+    private final MongoTemplate template;
+
+    public TokenRevocationMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        template
+            .indexOps("token_revocation")
+            .ensureIndex(new Index().on("expires_at", Sort.Direction.ASC).expire(Duration.ZERO).named(EXPIRES_AT_INDEX));
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        template.indexOps("token_revocation").dropIndex(EXPIRES_AT_INDEX);
+    }
+}
@@ -1,7 +1,10 @@
 package com.mycompany.myapp.domain;
 
 import java.io.Serializable;
+import java.time.Instant;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -9,7 +12,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * A Category.
  */
 @Document(collection = "category")
-public class Category implements Serializable {
+public class Category implements Serializable, Versioned {
 
     private static final long serialVersionUID = 1L;
 
@@ -19,6 +22,14 @@ public class Category implements Serializable {
     @Field("name")
     private String name;
 
+    @Version
+    @Field("version")
+    private Long version;
+
+    @LastModifiedDate
+    @Field("last_modified_date")
+    private Instant lastModifiedDate;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public String getId() {
@@ -47,6 +58,24 @@ public class Category implements Serializable {
         this.name = name;
     }
 
+    @Override
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public Instant getLastModifiedDate() {
+        return this.lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -1,19 +1,23 @@
 package com.mycompany.myapp.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.List;
 
 /**
  * A Emprunt.
  */
 @Document(collection = "emprunt")
-public class    Emprunt implements Serializable {
+public class    Emprunt implements Serializable, Versioned {
 
     private static final long serialVersionUID = 1L;
 
@@ -26,16 +30,34 @@ public class    Emprunt implements Serializable {
     @Field("end")
     private Instant end;
 
-    @DBRef
+    @Field("returned_at")
+    private Instant returnedAt;
+
+    @DBRef(lazy = true)
     @Field("loaner")
-    @JsonIgnoreProperties(value = "emprunts")
     private Loaner loaner;
 
-    @DBRef
+    @DBRef(lazy = true)
     @Field("livre")
     @JsonIgnoreProperties(value = "emprunt")
     private Livre livre;
 
+    /**
+     * Normalized keywords of the livre name, copied from the livre so that loans can be searched by title
+     * without resolving the livre reference.
+     */
+    @JsonIgnore
+    @Field("livre_keywords")
+    private List<String> livreKeywords;
+
+    @Version
+    @Field("version")
+    private Long version;
+
+    @LastModifiedDate
+    @Field("last_modified_date")
+    private Instant lastModifiedDate;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public String getId() {
@@ -77,6 +99,19 @@ public class    Emprunt implements Serializable {
         this.end = end;
     }
 
+    public Instant getReturnedAt() {
+        return this.returnedAt;
+    }
+
+    public Emprunt returnedAt(Instant returnedAt) {
+        this.setReturnedAt(returnedAt);
+        return this;
+    }
+
+    public void setReturnedAt(Instant returnedAt) {
+        this.returnedAt = returnedAt;
+    }
+
     public Loaner getLoaner() {
         return loaner;
     }
@@ -98,6 +133,32 @@ public class    Emprunt implements Serializable {
         return this;
     }
 
+    public List<String> getLivreKeywords() {
+        return livreKeywords;
+    }
+
+    public void setLivreKeywords(List<String> livreKeywords) {
+        this.livreKeywords = livreKeywords;
+    }
+
+    @Override
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public Instant getLastModifiedDate() {
+        return this.lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -124,6 +185,7 @@ public class    Emprunt implements Serializable {
             "id=" + getId() +
             ", start='" + getStart() + "'" +
             ", end='" + getEnd() + "'" +
+            ", returnedAt='" + getReturnedAt() + "'" +
             "}";
     }
 }
@@ -1,11 +1,14 @@
 package com.mycompany.myapp.domain;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -16,7 +19,7 @@ import javax.annotation.Nullable;
  * A Livre.
  */
 @Document(collection = "livre")
-public class Livre implements Serializable {
+public class Livre implements Serializable, Versioned {
 
     private static final long serialVersionUID = 1L;
 
@@ -32,16 +35,24 @@ public class Livre implements Serializable {
     @Field("is_borrowed")
     private Boolean isBorrowed;
 
-    @DBRef
+    @DBRef(lazy = true)
     @Field("category")
     private Category category;
 
-    @DBRef
+    @DBRef(lazy = true)
     @JsonIgnoreProperties(value = "livre")
     @Field("emprunt")
     @Nullable
     private Emprunt emprunt;
 
+    @Version
+    @Field("version")
+    private Long version;
+
+    @LastModifiedDate
+    @Field("last_modified_date")
+    private Instant lastModifiedDate;
+
     public Boolean getBorrowed() {
         return isBorrowed;
     }
@@ -125,6 +136,24 @@ public class Livre implements Serializable {
         return this;
     }
 
+    @Override
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public Instant getLastModifiedDate() {
+        return this.lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
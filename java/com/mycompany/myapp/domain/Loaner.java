@@ -1,21 +1,22 @@
 package com.mycompany.myapp.domain;
 
 import java.io.Serializable;
-import java.util.List;
+import java.time.Instant;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.mycompany.myapp.enums.LoanerType;
-import org.mapstruct.EnumMapping;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 /**
  * A Loaner.
+ * <p>
+ * The loan history is not embedded: query the {@link Emprunt} collection by loaner instead.
  */
 @Document(collection = "loaner")
-public class Loaner implements Serializable {
+public class Loaner implements Serializable, Versioned {
 
     private static final long serialVersionUID = 1L;
 
@@ -37,10 +38,13 @@ public class Loaner implements Serializable {
     @Field("id_number")
     private String idNumber;
 
-    @DBRef
-    @JsonIgnoreProperties(value = "loaner")
-    @Field("emprunts")
-    private List<Emprunt> emprunts;
+    @Version
+    @Field("version")
+    private Long version;
+
+    @LastModifiedDate
+    @Field("last_modified_date")
+    private Instant lastModifiedDate;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
@@ -52,14 +56,6 @@ public class Loaner implements Serializable {
         this.loanerType = loanerType;
     }
 
-    public List<Emprunt> getEmprunts() {
-        return emprunts;
-    }
-
-    public void setEmprunts(List<Emprunt> emprunts) {
-        this.emprunts = emprunts;
-    }
-
     public String getId() {
         return this.id;
     }
@@ -125,6 +121,24 @@ public class Loaner implements Serializable {
         this.idNumber = idNumber;
     }
 
+    @Override
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public Instant getLastModifiedDate() {
+        return this.lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -0,0 +1,131 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * A refresh token, exchanged once for a new access token and a new refresh token of the same family.
+ * <p>
+ * Only the digest of the token is stored, as its id. The token is deleted by MongoDB at {@code expiresAt}.
+ */
+@Document(collection = "refresh_token")
+public class RefreshToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Field("login")
+    private String login;
+
+    @Field("family")
+    private String family;
+
+    @Field("remember_me")
+    private boolean rememberMe;
+
+    @Field("issued_at")
+    private Instant issuedAt;
+
+    @Field("expires_at")
+    private Instant expiresAt;
+
+    @Field("rotated")
+    private boolean rotated;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    /**
+     * @return the id shared by a token and all the tokens it was rotated into.
+     */
+    public String getFamily() {
+        return family;
+    }
+
+    public void setFamily(String family) {
+        this.family = family;
+    }
+
+    public boolean isRememberMe() {
+        return rememberMe;
+    }
+
+    public void setRememberMe(boolean rememberMe) {
+        this.rememberMe = rememberMe;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(Instant issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return whether the token was already exchanged.
+     */
+    public boolean isRotated() {
+        return rotated;
+    }
+
+    public void setRotated(boolean rotated) {
+        this.rotated = rotated;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RefreshToken)) {
+            return false;
+        }
+        return id != null && id.equals(((RefreshToken) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+            "login='" + login + '\'' +
+            ", family='" + family + "'" +
+            ", rememberMe='" + rememberMe + "'" +
+            ", issuedAt='" + issuedAt + "'" +
+            ", expiresAt='" + expiresAt + "'" +
+            ", rotated='" + rotated + "'" +
+            "}";
+    }
+}
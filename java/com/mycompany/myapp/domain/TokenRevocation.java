@@ -0,0 +1,85 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The revocation of the tokens of a user: the tokens issued up to {@code revokedBefore} are no longer valid.
+ * The revocation is deleted by MongoDB at {@code expiresAt}, when all these tokens have expired anyway.
+ */
+@Document(collection = "token_revocation")
+public class TokenRevocation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String login;
+
+    @Field("revoked_before")
+    private Instant revokedBefore;
+
+    @Field("expires_at")
+    private Instant expiresAt;
+
+    public TokenRevocation() {}
+
+    public TokenRevocation(String login, Instant revokedBefore, Instant expiresAt) {
+        this.login = login;
+        this.revokedBefore = revokedBefore;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Instant getRevokedBefore() {
+        return revokedBefore;
+    }
+
+    public void setRevokedBefore(Instant revokedBefore) {
+        this.revokedBefore = revokedBefore;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TokenRevocation)) {
+            return false;
+        }
+        return Objects.equals(login, ((TokenRevocation) o).login);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(login);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TokenRevocation{" +
+            "login='" + login + '\'' +
+            ", revokedBefore='" + revokedBefore + "'" +
+            ", expiresAt='" + expiresAt + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,14 @@
+package com.mycompany.myapp.domain;
+
+import java.time.Instant;
+
+/**
+ * An entity with a version, incremented on every change, and the date of its last change.
+ */
+public interface Versioned {
+    String getId();
+
+    Long getVersion();
+
+    Instant getLastModifiedDate();
+}
@@ -0,0 +1,5 @@
+package com.mycompany.myapp.enums;
+
+public enum CheckoutStatus {
+    CREATED, ALREADY_BORROWED, UNKNOWN_LOANER, UNKNOWN_LIVRE;
+}
@@ -0,0 +1,30 @@
+package com.mycompany.myapp.enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum FileFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String extension;
+
+    FileFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static Optional<FileFormat> fromExtension(String extension) {
+        return Arrays.stream(values()).filter(format -> format.extension.equalsIgnoreCase(extension)).findFirst();
+    }
+}
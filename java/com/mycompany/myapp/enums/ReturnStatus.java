@@ -0,0 +1,5 @@
+package com.mycompany.myapp.enums;
+
+public enum ReturnStatus {
+    RETURNED, NOT_BORROWED, UNKNOWN_LIVRE;
+}
@@ -1,7 +1,11 @@
 package com.mycompany.myapp.management;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.function.Supplier;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,16 +17,43 @@ public class SecurityMetersService {
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String PASSWORD_HASHING_METER_NAME = "security.password.hashing";
+    public static final String PASSWORD_HASHING_QUEUE_METER_NAME = "security.password.hashing.queue";
+    public static final String PASSWORD_HASHING_REJECTED_METER_NAME = "security.password.hashing.rejected";
+
+    public static final String RATE_LIMITED_METER_NAME = "security.rate-limit.rejected";
+    public static final String RATE_LIMITED_METER_DESCRIPTION = "Indicates the count of the requests rejected by the rate limiting.";
+    public static final String RATE_LIMITED_METER_KEY_DIMENSION = "key";
+
+    private final MeterRegistry registry;
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
+    private final Counter tokenRevokedCounter;
+    private final Timer passwordHashingTimer;
+    private final Counter passwordHashingRejectedCounter;
+    private final Counter ipRateLimitedCounter;
+    private final Counter loginRateLimitedCounter;
 
     public SecurityMetersService(MeterRegistry registry) {
+        this.registry = registry;
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+        this.tokenRevokedCounter = invalidTokensCounterForCauseBuilder("revoked").register(registry);
+        this.passwordHashingTimer =
+            Timer.builder(PASSWORD_HASHING_METER_NAME).description("Indicates the time taken to hash a password.").register(registry);
+        this.passwordHashingRejectedCounter =
+            Counter
+                .builder(PASSWORD_HASHING_REJECTED_METER_NAME)
+                .baseUnit("requests")
+                .description("Indicates the count of the requests rejected because the password hashing was saturated.")
+                .register(registry);
+        this.ipRateLimitedCounter = rateLimitedCounterForKeyBuilder("ip").register(registry);
+        this.loginRateLimitedCounter = rateLimitedCounterForKeyBuilder("login").register(registry);
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -33,6 +64,14 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Counter.Builder rateLimitedCounterForKeyBuilder(String key) {
+        return Counter
+            .builder(RATE_LIMITED_METER_NAME)
+            .baseUnit("requests")
+            .description(RATE_LIMITED_METER_DESCRIPTION)
+            .tag(RATE_LIMITED_METER_KEY_DIMENSION, key);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -48,4 +87,31 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    public void trackTokenRevoked() {
+        this.tokenRevokedCounter.increment();
+    }
+
+    public <T> T trackPasswordHashing(Supplier<T> hashing) {
+        return this.passwordHashingTimer.record(hashing);
+    }
+
+    public void trackPasswordHashingRejected() {
+        this.passwordHashingRejectedCounter.increment();
+    }
+
+    public void trackIpRateLimited() {
+        this.ipRateLimitedCounter.increment();
+    }
+
+    public void trackLoginRateLimited() {
+        this.loginRateLimitedCounter.increment();
+    }
+
+    public void registerPasswordHashingQueue(Collection<?> queue) {
+        Gauge
+            .builder(PASSWORD_HASHING_QUEUE_METER_NAME, queue, Collection::size)
+            .description("Indicates the count of the passwords waiting to be hashed.")
+            .register(registry);
+    }
 }
@@ -0,0 +1,379 @@
+package com.mycompany.myapp.repository;
+
+import com.mongodb.CursorType;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.util.ObjectIds;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Broadcast of the cache invalidations to every node of the application.
+ * <p>
+ * An eviction is applied to the local cache, then appended to the capped collection {@code cache_invalidation}.
+ * Each node tails this collection, applies the evictions of the other nodes to its own caches and notifies the
+ * {@link CacheInvalidationListener}s of the cache. The collection is created by {@code CacheInvalidationMigration},
+ * or by the first node to use it when the migration has not run yet, as an insertion would create it uncapped;
+ * capped collections and tailable cursors work on a standalone server as well as on a replica set. The delay
+ * between an eviction and its application on another node is published as the {@value #LAG_METER_NAME} timer.
+ * <p>
+ * When the caches are persistent, see {@code application.cache.directory}, the id of the last invalidation applied
+ * is saved next to them, so that a restarted node applies the invalidations published while it was down to its
+ * recovered entries, or clears them when these invalidations have been overwritten.
+ */
+@Repository
+public class CacheInvalidationBus implements InitializingBean, DisposableBean {
+
+    public static final String COLLECTION = "cache_invalidation";
+
+    public static final String LAG_METER_NAME = "cache.invalidation.lag";
+
+    public static final long COLLECTION_SIZE = 16L * 1024 * 1024;
+
+    public static final long COLLECTION_MAX_DOCUMENTS = 10_000;
+
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private static final String LAST_ID_FILE = "cache-invalidation.last";
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final String node = UUID.randomUUID().toString();
+
+    private final MongoTemplate mongoTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final ObjectProvider<CacheInvalidationListener> listeners;
+
+    private final Timer lag;
+
+    private final Path lastIdFile;
+
+    private volatile boolean running;
+
+    private volatile boolean collectionCreated;
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private Thread tailer;
+
+    public CacheInvalidationBus(
+        MongoTemplate mongoTemplate,
+        CacheManager cacheManager,
+        ObjectProvider<CacheInvalidationListener> listeners,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.listeners = listeners;
+        String cacheDirectory = applicationProperties.getCache().getDirectory();
+        this.lastIdFile = cacheDirectory == null ? null : Paths.get(cacheDirectory, LAST_ID_FILE);
+        this.lag =
+            Timer
+                .builder(LAG_METER_NAME)
+                .description("Delay between a cache eviction on a node and its application on the other nodes.")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        tailer = new Thread(this::tail, "cache-invalidation");
+        tailer.setDaemon(true);
+        tailer.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        tailer.interrupt();
+        tailer.join(RETRY_DELAY.multipliedBy(2).toMillis());
+    }
+
+    /**
+     * Evict entries from a cache, on this node and on all the others.
+     *
+     * @param cacheName the name of the cache.
+     * @param keys the keys to evict.
+     */
+    public void evict(String cacheName, Collection<String> keys) {
+        Cache cache = cache(cacheName);
+        List<String> evicted = keys.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        if (evicted.isEmpty()) {
+            return;
+        }
+        nextGeneration(cacheName);
+        evicted.forEach(cache::evict);
+        publish(new Document("cache", cacheName).append("keys", evicted));
+    }
+
+    /**
+     * Notify the other nodes of a change to in-memory state that is not held in a cache: only the
+     * {@link CacheInvalidationListener}s of this name are notified.
+     *
+     * @param name the name listened to.
+     * @param keys the keys changed.
+     */
+    public void broadcast(String name, Collection<String> keys) {
+        List<String> changed = keys.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        if (!changed.isEmpty()) {
+            publish(new Document("cache", name).append("keys", changed));
+        }
+    }
+
+    /**
+     * Clear a cache, on this node and on all the others.
+     *
+     * @param cacheName the name of the cache.
+     */
+    public void clear(String cacheName) {
+        nextGeneration(cacheName);
+        cache(cacheName).clear();
+        publish(new Document("cache", cacheName));
+    }
+
+    /**
+     * The generation of a cache, incremented before each eviction from the cache on this node, whether made here or
+     * on another node. A document read from MongoDB is cached only if the generation did not change during the read,
+     * so that an eviction racing the read is not overwritten by an older document.
+     *
+     * @param cacheName the name of the cache.
+     * @return the generation of the cache.
+     */
+    public long generation(String cacheName) {
+        return generations.computeIfAbsent(cacheName, name -> new AtomicLong()).get();
+    }
+
+    private void nextGeneration(String cacheName) {
+        generations.computeIfAbsent(cacheName, name -> new AtomicLong()).incrementAndGet();
+    }
+
+    private void publish(Document invalidation) {
+        try {
+            createCollection();
+            mongoTemplate.getCollection(COLLECTION).insertOne(invalidation.append("node", node).append("at", new Date()));
+        } catch (MongoException e) {
+            log.warn("Could not broadcast the invalidation of {}: {}", invalidation.getString("cache"), e.getMessage());
+        }
+    }
+
+    /**
+     * Tail the collection in insertion order. The ids of the invalidations are not ordered across nodes, so a new
+     * cursor reads the collection from its start and skips the invalidations up to the last one applied. When
+     * that one was overwritten meanwhile, some invalidations may have been missed and all the caches are cleared.
+     * The id of the last invalidation applied is saved whenever the cursor waits for new ones.
+     */
+    private void tail() {
+        Object lastId = resumeId();
+        Object savedId = lastId;
+        while (running) {
+            try {
+                createCollection();
+            } catch (MongoException e) {
+                log.warn("Could not create the cache invalidations: {}", e.getMessage());
+            }
+            try (
+                MongoCursor<Document> cursor = mongoTemplate
+                    .getCollection(COLLECTION)
+                    .find()
+                    .cursorType(CursorType.TailableAwait)
+                    .maxAwaitTime(RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS)
+                    .iterator()
+            ) {
+                boolean resumed = lastId == null;
+                while (running) {
+                    Document invalidation = cursor.tryNext();
+                    if (invalidation != null) {
+                        if (resumed) {
+                            apply(invalidation);
+                            lastId = invalidation.get("_id");
+                        } else {
+                            resumed = invalidation.get("_id").equals(lastId);
+                        }
+                    } else if (cursor.getServerCursor() == null) {
+                        break;
+                    } else if (!resumed) {
+                        log.warn("Missed cache invalidations, clearing all the caches");
+                        clearAll();
+                        resumed = true;
+                    } else if (lastIdFile != null && !Objects.equals(lastId, savedId)) {
+                        saveLastId(lastId);
+                        savedId = lastId;
+                    }
+                }
+            } catch (MongoException | IllegalStateException e) {
+                if (running) {
+                    log.warn("Lost the cache invalidations, resuming: {}", e.getMessage());
+                }
+            }
+            try {
+                Thread.sleep(RETRY_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Create the capped collection if it is missing, seeded with a first document as a tailable cursor on an empty
+     * collection is closed at once.
+     */
+    private void createCollection() {
+        if (collectionCreated) {
+            return;
+        }
+        MongoDatabase db = mongoTemplate.getDb();
+        if (!db.listCollectionNames().into(new ArrayList<>()).contains(COLLECTION)) {
+            try {
+                db.createCollection(
+                    COLLECTION,
+                    new CreateCollectionOptions().capped(true).sizeInBytes(COLLECTION_SIZE).maxDocuments(COLLECTION_MAX_DOCUMENTS)
+                );
+                db.getCollection(COLLECTION).insertOne(new Document("node", node).append("at", new Date()));
+            } catch (MongoCommandException e) {
+                // created meanwhile by another node or by the migration
+                if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                    throw e;
+                }
+            }
+        }
+        collectionCreated = true;
+    }
+
+    /**
+     * The invalidation to resume from: the last one applied before a restart when the caches are persistent, or else
+     * the last one published, as the caches start empty.
+     */
+    private Object resumeId() {
+        if (lastIdFile == null) {
+            return lastId();
+        }
+        try {
+            if (Files.exists(lastIdFile)) {
+                return ObjectIds.toStored(Files.readString(lastIdFile, StandardCharsets.UTF_8).trim());
+            }
+        } catch (IOException e) {
+            log.warn("Could not read the last cache invalidation applied: {}", e.getMessage());
+        }
+        // the entries recovered from disk may be stale from an earlier run
+        log.info("No last cache invalidation applied, clearing all the caches");
+        clearCaches();
+        return lastId();
+    }
+
+    private void saveLastId(Object lastId) {
+        try {
+            Files.createDirectories(lastIdFile.getParent());
+            Files.writeString(lastIdFile, ObjectIds.fromStored(lastId), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Could not save the last cache invalidation applied: {}", e.getMessage());
+        }
+    }
+
+    private Object lastId() {
+        try {
+            Document last = mongoTemplate.getCollection(COLLECTION).find().sort(new Document("$natural", -1)).limit(1).first();
+            return last == null ? null : last.get("_id");
+        } catch (MongoException e) {
+            log.warn("Could not read the last cache invalidation: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void apply(Document invalidation) {
+        try {
+            String cacheName = invalidation.getString("cache");
+            if (node.equals(invalidation.getString("node")) || cacheName == null) {
+                return;
+            }
+            List<String> keys = invalidation.getList("keys", String.class);
+            log.debug("Applying the invalidation of {} {}", cacheName, keys == null ? "(all)" : keys);
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                nextGeneration(cacheName);
+                if (keys == null) {
+                    cache.clear();
+                } else {
+                    keys.stream().filter(Objects::nonNull).forEach(cache::evict);
+                }
+            }
+            notify(cacheName, keys);
+        } catch (RuntimeException e) {
+            log.error("Could not apply the cache invalidation {}", invalidation.get("_id"), e);
+            return;
+        }
+        Date at = invalidation.getDate("at");
+        if (at != null) {
+            Duration delay = Duration.between(at.toInstant(), Instant.now());
+            lag.record(delay.isNegative() ? Duration.ZERO : delay);
+        }
+    }
+
+    private void clearAll() {
+        clearCaches();
+        listeners.orderedStream().forEach(listener -> notify(listener.getCacheName(), null));
+    }
+
+    private void clearCaches() {
+        cacheManager
+            .getCacheNames()
+            .forEach(cacheName -> {
+                nextGeneration(cacheName);
+                cache(cacheName).clear();
+            });
+    }
+
+    private void notify(String cacheName, List<String> keys) {
+        listeners
+            .orderedStream()
+            .filter(listener -> cacheName.equals(listener.getCacheName()))
+            .forEach(listener -> {
+                try {
+                    listener.onInvalidation(keys);
+                } catch (RuntimeException e) {
+                    log.error("Could not refresh {} after an invalidation of {}", listener.getClass().getSimpleName(), cacheName, e);
+                }
+            });
+    }
+
+    private Cache cache(String cacheName) {
+        return Objects.requireNonNull(cacheManager.getCache(cacheName), () -> "No cache " + cacheName);
+    }
+}
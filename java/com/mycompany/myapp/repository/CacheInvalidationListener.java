@@ -0,0 +1,22 @@
+package com.mycompany.myapp.repository;
+
+import java.util.Collection;
+
+/**
+ * In-memory state derived from a cache, refreshed when another node invalidates entries of this cache.
+ *
+ * @see CacheInvalidationBus
+ */
+public interface CacheInvalidationListener {
+    /**
+     * @return the name of the cache listened to.
+     */
+    String getCacheName();
+
+    /**
+     * Refresh after an invalidation broadcast by another node. The local cache is already evicted.
+     *
+     * @param keys the invalidated keys, or {@code null} when the whole cache was cleared.
+     */
+    void onInvalidation(Collection<String> keys);
+}
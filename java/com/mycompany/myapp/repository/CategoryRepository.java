@@ -10,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CategoryRepository extends MongoRepository<Category, String> {}
+public interface CategoryRepository extends MongoRepository<Category, String> {
+    String CATEGORIES_BY_ID_CACHE = "categoriesById";
+}
@@ -0,0 +1,174 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.service.util.ObjectIds;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Resolves the lazy {@link org.springframework.data.mongodb.core.mapping.DBRef}s of a batch of entities together.
+ * <p>
+ * Resolving each reference on access costs one query per reference: two hundred for a page of a hundred
+ * emprunts. Instead, the references of the whole batch are collected and each referenced collection is read
+ * with a single {@code $in} query, level by level. Entities are kept in an identity map for the duration of a
+ * call, so an entity referenced several times, or already part of the batch, is read once and shared.
+ * References to missing documents are set to {@code null}. The entities held by an {@link EntityRegistry} are
+ * taken from it, and the cached entities from the {@link EntityCache}; only the others are queried.
+ */
+@Repository
+public class DbRefBatchResolver {
+
+    /** Levels resolved by default: the references of the entities, and the references of those. */
+    public static final int DEFAULT_DEPTH = 2;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final EntityCache entityCache;
+
+    private final Map<Class<?>, EntityRegistry<?>> registries = new HashMap<>();
+
+    public DbRefBatchResolver(MongoTemplate mongoTemplate, EntityCache entityCache, List<EntityRegistry<?>> registries) {
+        this.mongoTemplate = mongoTemplate;
+        this.entityCache = entityCache;
+        registries.forEach(registry -> this.registries.put(registry.getType(), registry));
+    }
+
+    /**
+     * Resolve the references of the entities of a page or slice, in place.
+     *
+     * @param slice the page or slice.
+     * @return the page or slice.
+     */
+    public <S extends Slice<?>> S resolve(S slice) {
+        resolve(slice.getContent(), DEFAULT_DEPTH);
+        return slice;
+    }
+
+    /**
+     * Resolve the references of an entity, in place.
+     *
+     * @param entity the entity, if any.
+     * @return the entity.
+     */
+    public <T> Optional<T> resolve(Optional<T> entity) {
+        entity.ifPresent(e -> resolve(List.of(e), DEFAULT_DEPTH));
+        return entity;
+    }
+
+    /**
+     * Resolve the references of the given entities, in place.
+     *
+     * @param entities the entities.
+     * @param depth the number of levels of references to resolve.
+     * @return the entities.
+     */
+    public <T> Collection<T> resolve(Collection<T> entities, int depth) {
+        Map<Class<?>, Map<String, Object>> identityMap = new HashMap<>();
+        List<Object> level = new ArrayList<>(entities);
+        level.forEach(entity -> register(identityMap, entity));
+        for (int i = 0; i < depth && !level.isEmpty(); i++) {
+            List<Reference> references = new ArrayList<>();
+            Map<Class<?>, Set<String>> missing = new HashMap<>();
+            for (Object entity : level) {
+                collect(entity, identityMap, references, missing);
+            }
+            level = new ArrayList<>();
+            for (Map.Entry<Class<?>, Set<String>> ids : missing.entrySet()) {
+                EntityRegistry<?> registry = registries.get(ids.getKey());
+                if (registry != null) {
+                    for (Iterator<String> id = ids.getValue().iterator(); id.hasNext();) {
+                        Optional<?> held = registry.get(id.next());
+                        if (held.isPresent()) {
+                            register(identityMap, held.get());
+                            level.add(held.get());
+                            id.remove();
+                        }
+                    }
+                }
+                if (!ids.getValue().isEmpty()) {
+                    List<?> found = entityCache.supports(ids.getKey())
+                        ? entityCache.findAllById(ids.getValue(), ids.getKey())
+                        : mongoTemplate.find(query(where("id").in(ids.getValue())), ids.getKey());
+                    for (Object loaded : found) {
+                        register(identityMap, loaded);
+                        level.add(loaded);
+                    }
+                }
+            }
+            for (Reference reference : references) {
+                Object target = identityMap.getOrDefault(reference.property.getActualType(), Map.of()).get(reference.id);
+                reference.accessor.setProperty(reference.property, target);
+            }
+        }
+        return entities;
+    }
+
+    private void collect(
+        Object entity,
+        Map<Class<?>, Map<String, Object>> identityMap,
+        List<Reference> references,
+        Map<Class<?>, Set<String>> missing
+    ) {
+        MongoPersistentEntity<?> persistentEntity = mongoTemplate
+            .getConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(entity.getClass());
+        PersistentPropertyAccessor<Object> accessor = persistentEntity.getPropertyAccessor(entity);
+        for (MongoPersistentProperty property : persistentEntity) {
+            if (!property.isDbReference() || property.isCollectionLike() || property.isMap()) {
+                continue;
+            }
+            Object value = accessor.getProperty(property);
+            if (value instanceof LazyLoadingProxy) {
+                String id = ObjectIds.fromStored(((LazyLoadingProxy) value).toDBRef().getId());
+                references.add(new Reference(accessor, property, id));
+                if (!identityMap.getOrDefault(property.getActualType(), Map.of()).containsKey(id)) {
+                    missing.computeIfAbsent(property.getActualType(), type -> new LinkedHashSet<>()).add(id);
+                }
+            }
+        }
+    }
+
+    private void register(Map<Class<?>, Map<String, Object>> identityMap, Object entity) {
+        Object id = mongoTemplate
+            .getConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(entity.getClass())
+            .getIdentifierAccessor(entity)
+            .getIdentifier();
+        if (id != null) {
+            identityMap.computeIfAbsent(entity.getClass(), type -> new HashMap<>()).putIfAbsent(id.toString(), entity);
+        }
+    }
+
+    private static final class Reference {
+
+        private final PersistentPropertyAccessor<Object> accessor;
+
+        private final MongoPersistentProperty property;
+
+        private final String id;
+
+        private Reference(PersistentPropertyAccessor<Object> accessor, MongoPersistentProperty property, String id) {
+            this.accessor = accessor;
+            this.property = property;
+            this.id = id;
+        }
+    }
+}
@@ -1,17 +1,20 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Emprunt;
+import com.mycompany.myapp.domain.Loaner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-
 /**
  * Spring Data MongoDB repository for the Emprunt entity.
  */
 @SuppressWarnings("unused")
 @Repository
 public interface EmpruntRepository extends MongoRepository<Emprunt, String> {
-    List<Emprunt> findAllByLivreNameContains(String livre);
+    String EMPRUNTS_BY_ID_CACHE = "empruntsById";
+
+    Page<Emprunt> findAllByLoaner(Loaner loaner, Pageable pageable);
 }
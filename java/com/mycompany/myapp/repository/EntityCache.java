@@ -0,0 +1,214 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Emprunt;
+import com.mycompany.myapp.domain.Livre;
+import com.mycompany.myapp.domain.Loaner;
+import com.mycompany.myapp.service.util.ObjectIds;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Read-through caches of the library entities by id.
+ * <p>
+ * The caches hold the documents as stored, and every read maps a fresh entity out of them, with lazy references:
+ * callers can resolve or modify the entities they get without altering the cache. The services evict the
+ * entities they change, and the evictions are broadcast to the other nodes by the {@link CacheInvalidationBus}.
+ */
+@Repository
+public class EntityCache {
+
+    private static final Map<Class<?>, String> CACHE_NAMES = Map.of(
+        Livre.class,
+        LivreRepository.LIVRES_BY_ID_CACHE,
+        Emprunt.class,
+        EmpruntRepository.EMPRUNTS_BY_ID_CACHE,
+        Loaner.class,
+        LoanerRepository.LOANERS_BY_ID_CACHE,
+        Category.class,
+        CategoryRepository.CATEGORIES_BY_ID_CACHE
+    );
+
+    private final MongoTemplate mongoTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public EntityCache(MongoTemplate mongoTemplate, CacheManager cacheManager, CacheInvalidationBus cacheInvalidationBus) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    /**
+     * @param type the type of the entities.
+     * @return whether the entities of this type are cached.
+     */
+    public boolean supports(Class<?> type) {
+        return CACHE_NAMES.containsKey(type);
+    }
+
+    /**
+     * Get an entity by id, from the cache or else from MongoDB.
+     *
+     * @param id the id of the entity.
+     * @param type the type of the entity.
+     * @return the entity, if it exists.
+     */
+    public <T> Optional<T> findById(String id, Class<T> type) {
+        return findAllById(List.of(id), type).stream().findFirst();
+    }
+
+    /**
+     * Get entities by id, from the cache or else from MongoDB with a single query.
+     *
+     * @param ids the ids of the entities.
+     * @param type the type of the entities.
+     * @return the entities found, in no particular order.
+     */
+    public <T> List<T> findAllById(Collection<String> ids, Class<T> type) {
+        Cache cache = cache(type);
+        long generation = cacheInvalidationBus.generation(CACHE_NAMES.get(type));
+        List<Document> documents = new ArrayList<>(ids.size());
+        List<Object> missing = new ArrayList<>();
+        for (String id : ids) {
+            Document document = cache.get(id, Document.class);
+            if (document != null) {
+                documents.add(document);
+            } else {
+                missing.add(ObjectIds.toStored(id));
+            }
+        }
+        if (!missing.isEmpty()) {
+            Query byIds = query(where("_id").in(missing));
+            for (Document document : mongoTemplate.find(byIds, Document.class, mongoTemplate.getCollectionName(type))) {
+                put(type, ObjectIds.fromStored(document.get("_id")), document, generation);
+                documents.add(document);
+            }
+        }
+        return documents.stream().map(document -> mongoTemplate.getConverter().read(type, document)).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the version of an entity, from the cache or else from MongoDB without reading the rest of the entity.
+     *
+     * @param id the id of the entity.
+     * @param type the type of the entity.
+     * @return the version of the entity, if it exists.
+     */
+    public Optional<EntityVersion> findVersion(String id, Class<?> type) {
+        Document document = cache(type).get(id, Document.class);
+        if (document == null) {
+            Query version = query(where("_id").is(ObjectIds.toStored(id)));
+            version.fields().include(EntityVersion.VERSION_FIELD).include(EntityVersion.LAST_MODIFIED_DATE_FIELD);
+            document = mongoTemplate.findOne(version, Document.class, mongoTemplate.getCollectionName(type));
+        }
+        return Optional.ofNullable(document).map(EntityVersion::of);
+    }
+
+    /**
+     * Get the version of an entity folded with the versions of the entities it references, for the responses that
+     * embed these references. The entity and its references are read through the caches.
+     *
+     * @param id the id of the entity.
+     * @param type the type of the entity.
+     * @param references the paths of the references, as properties of the entity, such as {@code "emprunt.loaner"}.
+     * @return the version of the entity and its references, if the entity exists.
+     */
+    public Optional<EntityVersion> findVersion(String id, Class<?> type, String... references) {
+        Document document = findDocument(id, type);
+        if (document == null) {
+            return Optional.empty();
+        }
+        EntityVersion version = EntityVersion.of(document);
+        for (String reference : references) {
+            version = version.fold(findReferenceVersion(document, type, reference));
+        }
+        return Optional.of(version);
+    }
+
+    private EntityVersion findReferenceVersion(Document document, Class<?> type, String path) {
+        for (String property : path.split("\\.")) {
+            MongoPersistentProperty reference = mongoTemplate
+                .getConverter()
+                .getMappingContext()
+                .getRequiredPersistentEntity(type)
+                .getRequiredPersistentProperty(property);
+            String id = ObjectIds.fromReference(document.get(reference.getFieldName()));
+            type = reference.getType();
+            document = id == null ? null : findDocument(id, type);
+            if (document == null) {
+                return null;
+            }
+        }
+        return EntityVersion.of(document);
+    }
+
+    private Document findDocument(String id, Class<?> type) {
+        Document document = cache(type).get(id, Document.class);
+        if (document == null) {
+            long generation = cacheInvalidationBus.generation(CACHE_NAMES.get(type));
+            Query byId = query(where("_id").is(ObjectIds.toStored(id)));
+            document = mongoTemplate.findOne(byId, Document.class, mongoTemplate.getCollectionName(type));
+            if (document != null) {
+                put(type, id, document, generation);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Cache a document read from MongoDB, unless an eviction from its cache ran since the read began: the document
+     * may then be older than the evicted one. The generation is checked after the put, as an eviction may also run
+     * between the check and the put.
+     */
+    private void put(Class<?> type, String id, Document document, long generation) {
+        Cache cache = cache(type);
+        cache.put(id, document);
+        if (cacheInvalidationBus.generation(CACHE_NAMES.get(type)) != generation) {
+            cache.evict(id);
+        }
+    }
+
+    /**
+     * Evict an entity, on every node.
+     *
+     * @param type the type of the entity.
+     * @param id the id of the entity.
+     */
+    public void evict(Class<?> type, String id) {
+        if (id != null) {
+            cacheInvalidationBus.evict(CACHE_NAMES.get(type), List.of(id));
+        }
+    }
+
+    /**
+     * Evict entities, on every node.
+     *
+     * @param type the type of the entities.
+     * @param ids the ids of the entities.
+     */
+    public void evictAll(Class<?> type, Collection<String> ids) {
+        cacheInvalidationBus.evict(CACHE_NAMES.get(type), ids);
+    }
+
+    private Cache cache(Class<?> type) {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAMES.get(type)), () -> "No cache for " + type.getSimpleName());
+    }
+}
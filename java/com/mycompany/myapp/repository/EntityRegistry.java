@@ -0,0 +1,21 @@
+package com.mycompany.myapp.repository;
+
+import java.util.Optional;
+
+/**
+ * An in-memory copy of a collection, that {@link DbRefBatchResolver} reads instead of querying MongoDB.
+ */
+public interface EntityRegistry<T> {
+    /**
+     * @return the type of the entities held.
+     */
+    Class<T> getType();
+
+    /**
+     * Get an entity from memory only.
+     *
+     * @param id the id of the entity.
+     * @return the entity, empty if it is not held.
+     */
+    Optional<T> get(String id);
+}
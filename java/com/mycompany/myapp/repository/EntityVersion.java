@@ -0,0 +1,88 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Versioned;
+import com.mycompany.myapp.service.util.ObjectIds;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Objects;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * The version and last modification date of a stored entity, read without the rest of the entity.
+ */
+public final class EntityVersion implements Versioned {
+
+    public static final String VERSION_FIELD = "version";
+
+    public static final String LAST_MODIFIED_DATE_FIELD = "last_modified_date";
+
+    private final String id;
+
+    private final Long version;
+
+    private final Instant lastModifiedDate;
+
+    private EntityVersion(String id, Long version, Instant lastModifiedDate) {
+        this.id = id;
+        this.version = version;
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    /**
+     * @param document a stored entity, or its projection on {@link #VERSION_FIELD} and {@link #LAST_MODIFIED_DATE_FIELD}.
+     * @return the version of the entity, {@code 0} if it has none.
+     */
+    public static EntityVersion of(Document document) {
+        Number version = document.get(VERSION_FIELD, Number.class);
+        Date lastModifiedDate = document.getDate(LAST_MODIFIED_DATE_FIELD);
+        return new EntityVersion(
+            ObjectIds.fromStored(document.get("_id")),
+            version == null ? 0L : version.longValue(),
+            lastModifiedDate == null ? null : lastModifiedDate.toInstant()
+        );
+    }
+
+    /**
+     * Add the increment of the version and the update of the last modification date to an update, for the writes
+     * that do not save a whole entity.
+     *
+     * @param update the update.
+     * @return the update.
+     */
+    public static Update touch(Update update) {
+        return update.inc(VERSION_FIELD, 1).currentDate(LAST_MODIFIED_DATE_FIELD);
+    }
+
+    /**
+     * Fold the version of a referenced entity into this version, for the responses that embed the reference.
+     *
+     * @param reference the version of the referenced entity, {@code null} if there is none.
+     * @return the version of the entity and its reference: it changes when either changes or the reference is replaced.
+     */
+    public EntityVersion fold(EntityVersion reference) {
+        if (reference == null) {
+            return new EntityVersion(id, 31 * version, lastModifiedDate);
+        }
+        Instant lastModified = lastModifiedDate;
+        if (lastModified == null || (reference.lastModifiedDate != null && reference.lastModifiedDate.isAfter(lastModified))) {
+            lastModified = reference.lastModifiedDate;
+        }
+        return new EntityVersion(id, 31 * (31 * version + Objects.hashCode(reference.id)) + reference.version + 1, lastModified);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+
+    @Override
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+}
@@ -0,0 +1,80 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.service.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Keyset pagination over any collection, in {@code _id} order.
+ * <p>
+ * A slice starts after the id encoded in its cursor, so it is read from the {@code _id} index whatever
+ * its depth, without skipping documents nor counting them. Cursors are opaque to clients: an empty
+ * cursor reads the first slice.
+ */
+@Repository
+public class KeysetRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public KeysetRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Read the slice of the entities matching the query, after the given cursor.
+     *
+     * @param query the query, without sort nor limit.
+     * @param cursor the cursor returned with the previous slice, empty or {@code null} for the first slice.
+     * @param size the size of the slice.
+     * @param type the type of the entities.
+     * @return the slice.
+     * @throws InvalidCursorException if the cursor was not returned by this repository.
+     */
+    public <T> KeysetSlice<T> findAll(Query query, String cursor, int size, Class<T> type) {
+        Query slice = Query.of(query).with(Sort.by("id")).limit(size + 1);
+        if (cursor != null && !cursor.isEmpty()) {
+            slice.addCriteria(where("id").gt(decode(cursor, type)));
+        }
+        List<T> content = mongoTemplate.find(slice, type);
+        if (content.size() <= size) {
+            return new KeysetSlice<>(content, size, null);
+        }
+        content = content.subList(0, size);
+        Object lastId = mongoTemplate
+            .getConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(type)
+            .getIdentifierAccessor(content.get(size - 1))
+            .getRequiredIdentifier();
+        return new KeysetSlice<>(content, size, encode(lastId.toString()));
+    }
+
+    private static String encode(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode the id of a cursor: an {@link ObjectId}, or a string id encoded exactly as {@link #encode} does,
+     * so that a forged cursor is rejected instead of reading an empty slice.
+     */
+    private String decode(String cursor, Class<?> type) {
+        String id;
+        try {
+            id = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(mongoTemplate.getCollectionName(type), cursor);
+        }
+        if (!ObjectId.isValid(id) && (id.isBlank() || !encode(id).equals(cursor))) {
+            throw new InvalidCursorException(mongoTemplate.getCollectionName(type), cursor);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,27 @@
+package com.mycompany.myapp.repository;
+
+import java.util.List;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * A slice of entities read by {@link KeysetRepository}, with the cursor of the next slice.
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String nextCursor;
+
+    public KeysetSlice(List<T> content, int size, String nextCursor) {
+        super(content, PageRequest.of(0, size), nextCursor != null);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return the cursor of the next slice, {@code null} if this slice is the last one.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
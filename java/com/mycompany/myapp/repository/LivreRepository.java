@@ -5,14 +5,11 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-
 /**
  * Spring Data MongoDB repository for the Livre entity.
  */
 @SuppressWarnings("unused")
 @Repository
 public interface LivreRepository extends MongoRepository<Livre, String> {
-
-    List<Livre> findAllByIsBorrowed(Boolean isBorrowed);
+    String LIVRES_BY_ID_CACHE = "livresById";
 }
@@ -14,6 +14,7 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface LoanerRepository extends MongoRepository<Loaner, String> {
+    String LOANERS_BY_ID_CACHE = "loanersById";
 
     Loaner findByLoanerType (LoanerType loanerType);
 
@@ -0,0 +1,96 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.service.util.ObjectIds;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Reads pages of raw documents restricted to a few stored fields.
+ * <p>
+ * The documents are not mapped to entities, so their references are left as they are stored instead of
+ * being resolved. Sort properties are entity properties, as for the repositories, and are translated
+ * to stored field names.
+ */
+@Repository
+public class ProjectionRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ProjectionRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Read a page of the documents of an entity matching a query, restricted to the given fields.
+     *
+     * @param query the query, on stored field names.
+     * @param pageable the pagination information, on entity properties.
+     * @param type the type of the entity.
+     * @param fields the stored fields to read, besides {@code _id}.
+     * @return the page of documents.
+     */
+    public Page<Document> findAll(Query query, Pageable pageable, Class<?> type, String... fields) {
+        String collection = mongoTemplate.getCollectionName(type);
+        Query page = Query.of(query).with(storedSort(pageable.getSort(), type));
+        if (pageable.isPaged()) {
+            page.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        for (String field : fields) {
+            page.fields().include(field);
+        }
+        List<Document> content = mongoTemplate.find(page, Document.class, collection);
+        return PageableExecutionUtils.getPage(content, pageable, () -> mongoTemplate.count(Query.of(query), collection));
+    }
+
+    /**
+     * Read the documents of an entity with the given ids, restricted to the given fields.
+     *
+     * @param ids the ids.
+     * @param type the type of the entity.
+     * @param fields the stored fields to read, besides {@code _id}.
+     * @return the documents found, by id.
+     */
+    public Map<String, Document> findAllById(Collection<String> ids, Class<?> type, String... fields) {
+        Map<String, Document> documents = new HashMap<>();
+        if (ids.isEmpty()) {
+            return documents;
+        }
+        Query query = query(where("_id").in(ids.stream().map(ObjectIds::toStored).collect(Collectors.toSet())));
+        for (String field : fields) {
+            query.fields().include(field);
+        }
+        mongoTemplate
+            .find(query, Document.class, mongoTemplate.getCollectionName(type))
+            .forEach(document -> documents.put(ObjectIds.fromStored(document.get("_id")), document));
+        return documents;
+    }
+
+    private Sort storedSort(Sort sort, Class<?> type) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(type);
+        return Sort.by(
+            sort
+                .stream()
+                .map(order -> {
+                    MongoPersistentProperty property = entity.getPersistentProperty(order.getProperty());
+                    return property == null ? order : order.withProperty(property.getFieldName());
+                })
+                .collect(Collectors.toList())
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.RefreshToken;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data MongoDB repository for the {@link RefreshToken} entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
+    String REFRESH_TOKENS_BY_ID_CACHE = "refreshTokensById";
+
+    @Cacheable(cacheNames = REFRESH_TOKENS_BY_ID_CACHE, unless = "#result == null")
+    Optional<RefreshToken> findOneById(String id);
+
+    List<RefreshToken> findAllByFamily(String family);
+}
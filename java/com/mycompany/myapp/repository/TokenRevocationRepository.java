@@ -0,0 +1,13 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.TokenRevocation;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Spring Data MongoDB repository for the {@link TokenRevocation} entity.
+ */
+public interface TokenRevocationRepository extends MongoRepository<TokenRevocation, String> {
+    List<TokenRevocation> findAllByExpiresAtAfter(Instant date);
+}
@@ -0,0 +1,105 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.management.SecurityMetersService;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Password encoder hashing the passwords on a dedicated pool of threads, with a bounded queue.
+ * <p>
+ * Hashing a password takes a processor for a long time on purpose, so a burst of logins would otherwise take every
+ * request thread. The pool is sized to the processors, and when its queue is full the passwords are not hashed: a
+ * {@link TooManyRequestsException} is thrown at once, which is answered with a {@code 429}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Duration retryAfter;
+
+    private final SecurityMetersService securityMetersService;
+
+    public BoundedPasswordEncoder(
+        PasswordEncoder delegate,
+        int threads,
+        int queueCapacity,
+        Duration retryAfter,
+        SecurityMetersService securityMetersService
+    ) {
+        this.delegate = delegate;
+        this.retryAfter = retryAfter;
+        this.securityMetersService = securityMetersService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor =
+            new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+        securityMetersService.registerPasswordHashingQueue(executor.getQueue());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T hash(Supplier<T> hashing) {
+        Future<T> hashed;
+        try {
+            hashed = executor.submit(() -> securityMetersService.trackPasswordHashing(hashing));
+        } catch (RejectedExecutionException e) {
+            securityMetersService.trackPasswordHashingRejected();
+            throw new TooManyRequestsException("Too many passwords to hash", retryAfter);
+        }
+        try {
+            return hashed.get();
+        } catch (InterruptedException e) {
+            hashed.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
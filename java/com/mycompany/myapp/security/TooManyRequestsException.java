@@ -0,0 +1,22 @@
+package com.mycompany.myapp.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a request is rejected because the server is saturated, the client may retry it later.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
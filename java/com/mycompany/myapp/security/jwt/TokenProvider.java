@@ -1,6 +1,8 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.service.TokenRevocationService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -8,6 +10,8 @@ import io.jsonwebtoken.security.SignatureException;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +31,9 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    // the standard iat claim is in seconds, too coarse to compare with a revocation
+    private static final String ISSUED_AT_MILLIS_KEY = "iat_ms";
+
     private static final String INVALID_JWT_TOKEN = "Invalid JWT token.";
 
     private final Key key;
@@ -35,11 +42,20 @@ public class TokenProvider {
 
     private final long tokenValidityInMilliseconds;
 
-    private final long tokenValidityInMillisecondsForRememberMe;
-
     private final SecurityMetersService securityMetersService;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+    private final VerifiedTokenCache verifiedTokens;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final ConcurrentMap<String, List<GrantedAuthority>> authorities = new ConcurrentHashMap<>();
+
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        SecurityMetersService securityMetersService,
+        TokenRevocationService tokenRevocationService
+    ) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -56,51 +72,91 @@ public class TokenProvider {
         key = Keys.hmacShaKeyFor(keyBytes);
         jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
-        this.tokenValidityInMillisecondsForRememberMe =
-            1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
 
         this.securityMetersService = securityMetersService;
+        this.verifiedTokens = new VerifiedTokenCache(applicationProperties.getSecurity().getVerifiedTokenCacheSize());
+        this.tokenRevocationService = tokenRevocationService;
     }
 
-    public String createToken(Authentication authentication, boolean rememberMe) {
+    /**
+     * Create a short-lived access token. The sessions outlive it through the refresh tokens, see
+     * {@link com.mycompany.myapp.service.RefreshTokenService}.
+     *
+     * @param authentication the authentication of the user.
+     * @return the access token.
+     */
+    public String createToken(Authentication authentication) {
         String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
 
         long now = (new Date()).getTime();
-        Date validity;
-        if (rememberMe) {
-            validity = new Date(now + this.tokenValidityInMillisecondsForRememberMe);
-        } else {
-            validity = new Date(now + this.tokenValidityInMilliseconds);
-        }
+        Date validity = new Date(now + this.tokenValidityInMilliseconds);
 
         return Jwts
             .builder()
             .setSubject(authentication.getName())
             .claim(AUTHORITIES_KEY, authorities)
+            .setIssuedAt(new Date(now))
+            .claim(ISSUED_AT_MILLIS_KEY, now)
             .signWith(key, SignatureAlgorithm.HS512)
             .setExpiration(validity)
             .compact();
     }
 
-    public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+    /**
+     * Authenticate a token. A token is verified once, the first time it is seen, and its authentication is then
+     * cached until the token expires. Only the revocation of the token is checked on every call.
+     *
+     * @param token the token.
+     * @return the authentication of the token, empty if the token is not valid or revoked.
+     */
+    public Optional<Authentication> authenticate(String token) {
+        VerifiedTokenCache.VerifiedToken verified = verifiedTokens.get(token, this::verify);
+        if (verified == null) {
+            return Optional.empty();
+        }
+        Authentication authentication = verified.getAuthentication();
+        if (tokenRevocationService.isRevoked(authentication.getName(), verified.getIssuedAt())) {
+            this.securityMetersService.trackTokenRevoked();
+            return Optional.empty();
+        }
+        return Optional.of(authentication);
+    }
+
+    private VerifiedTokenCache.VerifiedToken verify(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            return null;
+        }
+        Collection<GrantedAuthority> grantedAuthorities = authorities.computeIfAbsent(
+            String.valueOf(claims.get(AUTHORITIES_KEY)),
+            TokenProvider::parseAuthorities
+        );
+        User principal = new User(claims.getSubject(), "", grantedAuthorities);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(principal, token, grantedAuthorities);
+        Long issuedAtMillis = claims.get(ISSUED_AT_MILLIS_KEY, Long.class);
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new VerifiedTokenCache.VerifiedToken(
+            authentication,
+            issuedAtMillis != null ? issuedAtMillis : issuedAt == null ? 0 : issuedAt.getTime(),
+            expiration == null ? Long.MAX_VALUE : expiration.getTime()
+        );
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+    /**
+     * The authorities of a token, shared by all the tokens with the same authorities.
+     */
+    private static List<GrantedAuthority> parseAuthorities(String authorities) {
+        return Arrays
+            .stream(authorities.split(","))
             .filter(auth -> !auth.trim().isEmpty())
             .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
-
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+            .collect(Collectors.toUnmodifiableList());
     }
 
-    public boolean validateToken(String authToken) {
+    private Claims parseClaims(String authToken) {
         try {
-            jwtParser.parseClaimsJws(authToken);
-
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
@@ -121,6 +177,6 @@ public class TokenProvider {
             log.error("Token validation error {}", e.getMessage());
         }
 
-        return false;
+        return null;
     }
 }
@@ -0,0 +1,103 @@
+package com.mycompany.myapp.security.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Bounded cache of the verified tokens, with their authentication, until they expire.
+ * <p>
+ * Tokens are keyed by their SHA-256 digest, so that the raw tokens are neither hashed with {@link String#hashCode()}
+ * nor compared character by character. When the cache is full, the expired tokens are dropped first, then arbitrary
+ * ones: a dropped token is only verified again. The cached authentications are shared between requests and must not be
+ * modified.
+ */
+class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final int maxSize;
+
+    private final ConcurrentMap<ByteBuffer, VerifiedToken> tokens = new ConcurrentHashMap<>();
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get a token, verifying it if it is not cached yet.
+     *
+     * @param token the token.
+     * @param verifier the verification of a token, returning {@code null} for an invalid token.
+     * @return the verified token, {@code null} if it is not valid.
+     */
+    VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        if (maxSize <= 0) {
+            return verifier.apply(token);
+        }
+        ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = tokens.get(digest);
+        if (cached != null && cached.expiresAt > now) {
+            return cached;
+        }
+        VerifiedToken verified = verifier.apply(token);
+        if (verified == null) {
+            tokens.remove(digest);
+            return null;
+        }
+        if (tokens.size() >= maxSize) {
+            evict(now);
+        }
+        tokens.put(digest, verified);
+        return verified;
+    }
+
+    private void evict(long now) {
+        tokens.values().removeIf(verified -> verified.expiresAt <= now);
+        // evict a tenth of the cache at once, not to scan it on every new token
+        Iterator<ByteBuffer> digests = tokens.keySet().iterator();
+        while (tokens.size() >= maxSize - maxSize / 10 && digests.hasNext()) {
+            digests.next();
+            digests.remove();
+        }
+    }
+
+    static final class VerifiedToken {
+
+        private final Authentication authentication;
+
+        private final long issuedAt;
+
+        private final long expiresAt;
+
+        VerifiedToken(Authentication authentication, long issuedAt, long expiresAt) {
+            this.authentication = authentication;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        Authentication getAuthentication() {
+            return authentication;
+        }
+
+        /**
+         * @return the time the token was issued, in milliseconds since the epoch, {@code 0} if unknown.
+         */
+        long getIssuedAt() {
+            return issuedAt;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mycompany.myapp.security.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets of this node, taken without locks: each bucket is an {@link AtomicLong} updated by compare-and-set.
+ */
+class InMemoryTokenBucketStore implements TokenBucketStore {
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryConsume(String key, long interval, long tolerance, long now) {
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long arrival = bucket.get();
+            long start = Math.max(arrival, now);
+            long wait = start - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public void removeFull(long now) {
+        // a token taken from a bucket being removed is lost, which lets at most one more request through
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+}
@@ -0,0 +1,74 @@
+package com.mycompany.myapp.security.ratelimit;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import java.util.List;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Token buckets shared by all the nodes, in the {@code rate_limit} collection.
+ * <p>
+ * A token is taken by a single update pipeline, atomic on the bucket document, so it needs MongoDB 4.2. The buckets
+ * are deleted by MongoDB once full, see {@code RateLimitMigration}. Two nodes creating the same bucket at once race
+ * on its insertion, so the loser takes its token again from the inserted bucket. When MongoDB can not be reached, the
+ * requests are let through.
+ */
+class MongoTokenBucketStore implements TokenBucketStore {
+
+    static final String COLLECTION = "rate_limit";
+
+    private static final FindOneAndUpdateOptions UPSERT = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
+
+    private final Logger log = LoggerFactory.getLogger(MongoTokenBucketStore.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    MongoTokenBucketStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public long tryConsume(String key, long interval, long tolerance, long now) {
+        Document start = new Document("$max", List.of(new Document("$ifNull", List.of("$arrival", now)), now));
+        Document wait = new Document("$subtract", List.of("$start", tolerance + now));
+        Document taken = new Document("$add", List.of("$start", interval));
+        Document arrival = new Document("$cond", List.of(new Document("$gt", List.of("$wait", 0)), "$start", taken));
+        List<Document> take = List.of(
+            new Document("$set", new Document("start", start)),
+            new Document("$set", new Document("wait", wait)),
+            new Document("$set", new Document("arrival", arrival)),
+            new Document("$set", new Document("expires_at", new Document("$toDate", "$arrival"))),
+            new Document("$unset", "start")
+        );
+        try {
+            return take(key, take);
+        } catch (MongoException e) {
+            if (ErrorCategory.fromErrorCode(e.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                log.warn("Could not take a token from the bucket {}: {}", key, e.getMessage());
+                return 0;
+            }
+        }
+        try {
+            return take(key, take);
+        } catch (MongoException e) {
+            log.warn("Could not take a token from the bucket {}: {}", key, e.getMessage());
+            return 0;
+        }
+    }
+
+    private long take(String key, List<Document> take) {
+        Document bucket = mongoTemplate.getCollection(COLLECTION).findOneAndUpdate(Filters.eq("_id", key), take, UPSERT);
+        return bucket == null ? 0 : Math.max(0, bucket.get("wait", Number.class).longValue());
+    }
+
+    @Override
+    public void removeFull(long now) {
+        // deleted by the TTL index
+    }
+}
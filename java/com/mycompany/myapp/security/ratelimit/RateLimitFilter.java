@@ -0,0 +1,56 @@
+package com.mycompany.myapp.security.ratelimit;
+
+import com.mycompany.myapp.security.TooManyRequestsException;
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+/**
+ * Filters the authentication, token refresh, registration and password reset requests through the bucket of their client IP.
+ * The rejected requests are answered by the {@link HandlerExceptionResolver}, as a {@code 429} problem.
+ * <p>
+ * Behind a proxy, {@code server.forward-headers-strategy} must be set for the client IP to be known.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final RequestMatcher LIMITED_REQUESTS = new OrRequestMatcher(
+        new AntPathRequestMatcher("/api/authenticate", HttpMethod.POST.name()),
+        new AntPathRequestMatcher("/api/authenticate/refresh", HttpMethod.POST.name()),
+        new AntPathRequestMatcher("/api/register", HttpMethod.POST.name()),
+        new AntPathRequestMatcher("/api/account/reset-password/init", HttpMethod.POST.name())
+    );
+
+    private final RateLimiter rateLimiter;
+
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public RateLimitFilter(RateLimiter rateLimiter, HandlerExceptionResolver handlerExceptionResolver) {
+        this.rateLimiter = rateLimiter;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !LIMITED_REQUESTS.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        try {
+            rateLimiter.checkIp(request.getRemoteAddr());
+        } catch (TooManyRequestsException e) {
+            handlerExceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
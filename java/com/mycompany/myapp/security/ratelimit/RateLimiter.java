@@ -0,0 +1,91 @@
+package com.mycompany.myapp.security.ratelimit;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.security.TooManyRequestsException;
+import java.time.Duration;
+import java.util.Locale;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limiting of the authentication, registration and password reset requests, with a token bucket for each
+ * client IP and for each login or email from each client IP. The login buckets are keyed on the IP too, so that a
+ * client can not empty the bucket of another user and lock this user out; the IP bucket bounds all the requests.
+ * <p>
+ * The buckets are kept in memory, or in MongoDB when {@code application.rate-limit.shared} is set, so that all the
+ * nodes share them.
+ */
+@Component
+public class RateLimiter {
+
+    private final ApplicationProperties.RateLimit properties;
+
+    private final SecurityMetersService securityMetersService;
+
+    private final TokenBucketStore buckets;
+
+    public RateLimiter(
+        ApplicationProperties applicationProperties,
+        MongoTemplate mongoTemplate,
+        SecurityMetersService securityMetersService
+    ) {
+        this.properties = applicationProperties.getRateLimit();
+        this.securityMetersService = securityMetersService;
+        this.buckets = properties.isShared() ? new MongoTokenBucketStore(mongoTemplate) : new InMemoryTokenBucketStore();
+    }
+
+    /**
+     * Take a token from the bucket of a client IP.
+     *
+     * @param ip the IP of the client.
+     * @throws TooManyRequestsException if the bucket is empty.
+     */
+    public void checkIp(String ip) {
+        long wait = tryConsume("ip:" + ip, properties.getByIp());
+        if (wait > 0) {
+            securityMetersService.trackIpRateLimited();
+            throw new TooManyRequestsException("Too many requests from this client", Duration.ofMillis(wait));
+        }
+    }
+
+    /**
+     * Take a token from the bucket of a login, or an email, from a client IP.
+     *
+     * @param login the login or the email, in any case.
+     * @param ip the IP of the client.
+     * @throws TooManyRequestsException if the bucket is empty.
+     */
+    public void checkLogin(String login, String ip) {
+        if (login == null) {
+            return;
+        }
+        long wait = tryConsume("login:" + login.toLowerCase(Locale.ENGLISH) + ":" + ip, properties.getByLogin());
+        if (wait > 0) {
+            securityMetersService.trackLoginRateLimited();
+            throw new TooManyRequestsException("Too many requests for this login", Duration.ofMillis(wait));
+        }
+    }
+
+    /**
+     * Drop the full buckets of this node.
+     * <p>
+     * This is scheduled to get fired every minute.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void removeFullBuckets() {
+        buckets.removeFull(System.currentTimeMillis());
+    }
+
+    /**
+     * @return {@code 0} if a token was taken, or else the time to wait for the next token, in milliseconds.
+     */
+    private long tryConsume(String key, ApplicationProperties.Bucket bucket) {
+        if (bucket.getCapacity() <= 0) {
+            return 0;
+        }
+        long interval = Math.max(1, bucket.getRefillPeriod().toMillis() / bucket.getCapacity());
+        return buckets.tryConsume(key, interval, interval * (bucket.getCapacity() - 1), System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,25 @@
+package com.mycompany.myapp.security.ratelimit;
+
+/**
+ * Store of token buckets, kept as the generic cell rate algorithm: a bucket is a single instant, the arrival time of
+ * its next token, which is in the past when the bucket is full.
+ */
+interface TokenBucketStore {
+    /**
+     * Take a token from a bucket.
+     *
+     * @param key the key of the bucket.
+     * @param interval the time to add a token to the bucket, in milliseconds.
+     * @param tolerance the time to refill the bucket but one token, in milliseconds.
+     * @param now the current time, in milliseconds since the epoch.
+     * @return {@code 0} if a token was taken, or else the time to wait for the next token, in milliseconds.
+     */
+    long tryConsume(String key, long interval, long tolerance, long now);
+
+    /**
+     * Drop the full buckets, which are created again when needed.
+     *
+     * @param now the current time, in milliseconds since the epoch.
+     */
+    void removeFull(long now);
+}
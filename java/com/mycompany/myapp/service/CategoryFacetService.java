@@ -0,0 +1,81 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.service.dto.CategoryFacetDTO;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service computing the number of livres per category, total and available.
+ * <p>
+ * The counts are built from the livres loaded by the {@link LivreAvailabilityIndex}, then kept up to date
+ * with the changes it reports, so reading them does not touch MongoDB. The index reports the livres it
+ * loads and the changes it records under the same lock, so a change is never counted twice.
+ */
+@Service
+public class CategoryFacetService {
+
+    private final Logger log = LoggerFactory.getLogger(CategoryFacetService.class);
+
+    private final Map<String, Counts> facets = new HashMap<>();
+
+    /**
+     * Get the counts of every category having livres.
+     *
+     * @return the counts, by category id.
+     */
+    public synchronized List<CategoryFacetDTO> findAll() {
+        log.debug("Request to get the Category facets");
+        return facets
+            .entrySet()
+            .stream()
+            .map(entry -> new CategoryFacetDTO(entry.getKey(), entry.getValue().total, entry.getValue().available))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Drop the counts, before the index loads the livres again.
+     */
+    synchronized void clear() {
+        facets.clear();
+    }
+
+    /**
+     * Record a change of a livre.
+     *
+     * @param oldCategoryId the category of the livre before the change, {@code null} if it had none or was new.
+     * @param oldAvailable whether the livre was counted as available before the change.
+     * @param newCategoryId the category of the livre after the change, {@code null} if it has none or was deleted.
+     * @param newAvailable whether the livre is available after the change.
+     */
+    synchronized void move(String oldCategoryId, boolean oldAvailable, String newCategoryId, boolean newAvailable) {
+        if (oldCategoryId != null) {
+            Counts counts = facets.get(oldCategoryId);
+            if (counts != null) {
+                counts.add(-1, oldAvailable ? -1 : 0);
+                if (counts.total <= 0) {
+                    facets.remove(oldCategoryId);
+                }
+            }
+        }
+        if (newCategoryId != null) {
+            facets.computeIfAbsent(newCategoryId, id -> new Counts()).add(1, newAvailable ? 1 : 0);
+        }
+    }
+
+    private static final class Counts {
+
+        private long total;
+
+        private long available;
+
+        private void add(long total, long available) {
+            this.total += total;
+            this.available += available;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.repository.CacheInvalidationListener;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.EntityCache;
+import com.mycompany.myapp.repository.EntityRegistry;
+import com.mycompany.myapp.service.util.SearchText;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory registry of all the {@link Category}s.
+ * <p>
+ * Categories are few and rarely change: they are all loaded at startup and the registry is refreshed by
+ * {@link CategoryService} on every change, or after a change on another node. Reads are served from an immutable snapshot, replaced on each
+ * change, and fall back to the {@link EntityCache} for an unknown id. The registry keeps its own copies of the categories and
+ * returns a fresh copy on every read, as callers attach the categories to the entities they modify and serialize.
+ */
+@Component
+public class CategoryRegistry implements EntityRegistry<Category>, CacheInvalidationListener, InitializingBean {
+
+    private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final Logger log = LoggerFactory.getLogger(CategoryRegistry.class);
+
+    private final CategoryRepository categoryRepository;
+
+    private final EntityCache entityCache;
+
+    private volatile Map<String, Category> categories = Collections.emptyMap();
+
+    public CategoryRegistry(CategoryRepository categoryRepository, EntityCache entityCache) {
+        this.categoryRepository = categoryRepository;
+        this.entityCache = entityCache;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        load();
+    }
+
+    /**
+     * (Re)load all the categories from MongoDB.
+     */
+    public synchronized void load() {
+        Map<String, Category> loaded = new LinkedHashMap<>();
+        categoryRepository.findAll(Sort.by("id")).forEach(category -> loaded.put(category.getId(), copy(category)));
+        categories = Collections.unmodifiableMap(loaded);
+        log.info("Loaded {} Categories", loaded.size());
+    }
+
+    /**
+     * Add or replace a category.
+     *
+     * @param category the category, as saved.
+     */
+    public synchronized void put(Category category) {
+        Map<String, Category> updated = new LinkedHashMap<>(categories);
+        updated.put(category.getId(), copy(category));
+        categories = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * Remove a category.
+     *
+     * @param id the id of the category.
+     */
+    public synchronized void remove(String id) {
+        if (categories.containsKey(id)) {
+            Map<String, Category> updated = new LinkedHashMap<>(categories);
+            updated.remove(id);
+            categories = Collections.unmodifiableMap(updated);
+        }
+    }
+
+    @Override
+    public String getCacheName() {
+        return CategoryRepository.CATEGORIES_BY_ID_CACHE;
+    }
+
+    /**
+     * Refresh the categories changed on another node.
+     *
+     * @param ids the ids of the categories, or {@code null} to reload all the categories.
+     */
+    @Override
+    public void onInvalidation(Collection<String> ids) {
+        if (ids == null) {
+            load();
+            return;
+        }
+        for (String id : ids) {
+            entityCache.findById(id, Category.class).ifPresentOrElse(this::put, () -> remove(id));
+        }
+    }
+
+    @Override
+    public Class<Category> getType() {
+        return Category.class;
+    }
+
+    @Override
+    public Optional<Category> get(String id) {
+        return Optional.ofNullable(categories.get(id)).map(CategoryRegistry::copy);
+    }
+
+    /**
+     * Get a category, reading it through the {@link EntityCache} if it is not known yet.
+     *
+     * @param id the id of the category.
+     * @return the category, if it exists.
+     */
+    public Optional<Category> findById(String id) {
+        Optional<Category> category = get(id);
+        if (category.isPresent()) {
+            return category;
+        }
+        category = entityCache.findById(id, Category.class);
+        category.ifPresent(this::put);
+        return category;
+    }
+
+    /**
+     * Get a category by name, ignoring case and accents.
+     *
+     * @param name the name of the category.
+     * @return the category, if any.
+     */
+    public Optional<Category> findByName(String name) {
+        String normalized = SearchText.normalize(name);
+        return categories
+            .values()
+            .stream()
+            .filter(category -> SearchText.normalize(category.getName()).equals(normalized))
+            .findFirst()
+            .map(CategoryRegistry::copy);
+    }
+
+    /**
+     * Get a page of the categories, sorted by id or name.
+     *
+     * @param pageable the pagination information, sorting on other properties is ignored.
+     * @return the page of categories.
+     */
+    public Page<Category> findAll(Pageable pageable) {
+        List<Category> all = new ArrayList<>(categories.values());
+        Comparator<Category> comparator = null;
+        for (Sort.Order order : pageable.getSort()) {
+            Comparator<Category> property;
+            if ("id".equals(order.getProperty())) {
+                property = Comparator.comparing(Category::getId, NULLS_FIRST);
+            } else if ("name".equals(order.getProperty())) {
+                property = Comparator.comparing(Category::getName, NULLS_FIRST);
+            } else {
+                continue;
+            }
+            property = order.isAscending() ? property : property.reversed();
+            comparator = comparator == null ? property : comparator.thenComparing(property);
+        }
+        if (comparator != null) {
+            all.sort(comparator);
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(copies(all), pageable, all.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(copies(all.subList(from, to)), pageable, all.size());
+    }
+
+    private static List<Category> copies(List<Category> categories) {
+        return categories.stream().map(CategoryRegistry::copy).collect(Collectors.toList());
+    }
+
+    private static Category copy(Category category) {
+        Category copy = new Category().id(category.getId()).name(category.getName());
+        copy.setVersion(category.getVersion());
+        copy.setLastModifiedDate(category.getLastModifiedDate());
+        return copy;
+    }
+}
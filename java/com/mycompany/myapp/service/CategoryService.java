@@ -1,12 +1,17 @@
 package com.mycompany.myapp.service;
 
 import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Versioned;
 import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.EntityCache;
+import com.mycompany.myapp.repository.KeysetRepository;
+import com.mycompany.myapp.repository.KeysetSlice;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 /**
@@ -19,8 +24,22 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    private final KeysetRepository keysetRepository;
+
+    private final CategoryRegistry categoryRegistry;
+
+    private final EntityCache entityCache;
+
+    public CategoryService(
+        CategoryRepository categoryRepository,
+        KeysetRepository keysetRepository,
+        CategoryRegistry categoryRegistry,
+        EntityCache entityCache
+    ) {
         this.categoryRepository = categoryRepository;
+        this.keysetRepository = keysetRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.entityCache = entityCache;
     }
 
     /**
@@ -31,7 +50,13 @@ public class CategoryService {
      */
     public Category save(Category category) {
         log.debug("Request to save Category : {}", category);
-        return categoryRepository.save(category);
+        if (category.getId() != null && category.getVersion() == null) {
+            entityCache.findVersion(category.getId(), Category.class).map(Versioned::getVersion).ifPresent(category::setVersion);
+        }
+        Category result = categoryRepository.save(category);
+        entityCache.evict(Category.class, result.getId());
+        categoryRegistry.put(result);
+        return result;
     }
 
     /**
@@ -49,21 +74,41 @@ public class CategoryService {
                 if (category.getName() != null) {
                     existingCategory.setName(category.getName());
                 }
+                if (category.getVersion() != null) {
+                    existingCategory.setVersion(category.getVersion());
+                }
 
                 return existingCategory;
             })
-            .map(categoryRepository::save);
+            .map(categoryRepository::save)
+            .map(result -> {
+                entityCache.evict(Category.class, result.getId());
+                categoryRegistry.put(result);
+                return result;
+            });
     }
 
     /**
-     * Get all the categories.
+     * Get all the categories, from the {@link CategoryRegistry}.
      *
-     * @param pageable the pagination information.
+     * @param pageable the pagination information, sorted by id or name.
      * @return the list of entities.
      */
     public Page<Category> findAll(Pageable pageable) {
         log.debug("Request to get all Categories");
-        return categoryRepository.findAll(pageable);
+        return categoryRegistry.findAll(pageable);
+    }
+
+    /**
+     * Get a slice of the categories, in id order, after the given cursor.
+     *
+     * @param cursor the cursor returned with the previous slice, empty for the first slice.
+     * @param size the size of the slice.
+     * @return the slice of entities.
+     */
+    public KeysetSlice<Category> findAll(String cursor, int size) {
+        log.debug("Request to get a slice of Categories");
+        return keysetRepository.findAll(new Query(), cursor, size, Category.class);
     }
 
     /**
@@ -74,7 +119,17 @@ public class CategoryService {
      */
     public Optional<Category> findOne(String id) {
         log.debug("Request to get Category : {}", id);
-        return categoryRepository.findById(id);
+        return categoryRegistry.findById(id);
+    }
+
+    /**
+     * Get the version of one category by id, from the registry.
+     *
+     * @param id the id of the entity.
+     * @return the version of the entity.
+     */
+    public Optional<Versioned> findVersion(String id) {
+        return categoryRegistry.findById(id).map(Versioned.class::cast);
     }
 
     /**
@@ -85,5 +140,7 @@ public class CategoryService {
     public void delete(String id) {
         log.debug("Request to delete Category : {}", id);
         categoryRepository.deleteById(id);
+        entityCache.evict(Category.class, id);
+        categoryRegistry.remove(id);
     }
 }
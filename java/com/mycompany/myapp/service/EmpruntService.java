@@ -3,20 +3,58 @@ package com.mycompany.myapp.service;
 import com.mycompany.myapp.domain.Emprunt;
 import com.mycompany.myapp.domain.Livre;
 import com.mycompany.myapp.domain.Loaner;
-import com.mycompany.myapp.enums.LoanerType;
+import com.mycompany.myapp.domain.Versioned;
+import com.mycompany.myapp.enums.CheckoutStatus;
+import com.mycompany.myapp.enums.ReturnStatus;
+import com.mycompany.myapp.repository.DbRefBatchResolver;
 import com.mycompany.myapp.repository.EmpruntRepository;
+import com.mycompany.myapp.repository.EntityCache;
+import com.mycompany.myapp.repository.EntityVersion;
+import com.mycompany.myapp.repository.KeysetRepository;
+import com.mycompany.myapp.repository.KeysetSlice;
+import com.mycompany.myapp.repository.ProjectionRepository;
+import com.mycompany.myapp.service.dto.CheckoutRequestDTO;
+import com.mycompany.myapp.service.dto.CheckoutResultDTO;
+import com.mycompany.myapp.service.dto.EmpruntSummaryDTO;
+import com.mycompany.myapp.service.dto.ReturnResultDTO;
+import com.mycompany.myapp.service.util.ObjectIds;
+import com.mycompany.myapp.service.util.SearchText;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 /**
  * Service Implementation for managing {@link Emprunt}.
  */
@@ -27,42 +65,317 @@ public class EmpruntService {
 
     private final EmpruntRepository empruntRepository;
 
-    private final StudentService studentService;
+    private final MongoTemplate mongoTemplate;
+
+    private final LivreAvailabilityIndex livreAvailabilityIndex;
+
+    private final KeysetRepository keysetRepository;
+
+    private final ProjectionRepository projectionRepository;
 
-    private final LivreService livreService;
+    private final DbRefBatchResolver dbRefBatchResolver;
 
-    private final TeacherService teacherService;
+    private final EntityCache entityCache;
 
-    public EmpruntService(EmpruntRepository empruntRepository, StudentService studentService, LivreService livreService, TeacherService teacherService) {
+    public EmpruntService(
+        EmpruntRepository empruntRepository,
+        MongoTemplate mongoTemplate,
+        LivreAvailabilityIndex livreAvailabilityIndex,
+        KeysetRepository keysetRepository,
+        ProjectionRepository projectionRepository,
+        DbRefBatchResolver dbRefBatchResolver,
+        EntityCache entityCache
+    ) {
         this.empruntRepository = empruntRepository;
-        this.studentService = studentService;
-        this.livreService = livreService;
-        this.teacherService = teacherService;
+        this.mongoTemplate = mongoTemplate;
+        this.livreAvailabilityIndex = livreAvailabilityIndex;
+        this.keysetRepository = keysetRepository;
+        this.projectionRepository = projectionRepository;
+        this.dbRefBatchResolver = dbRefBatchResolver;
+        this.entityCache = entityCache;
     }
 
     /**
      * Save a emprunt.
+     * <p>
+     * A new emprunt is a checkout: see {@link #checkout(Emprunt)}.
      *
      * @param emprunt the entity to save.
      * @return the persisted entity.
      */
     public Emprunt save(Emprunt emprunt) {
         log.debug("Request to save Emprunt : {}", emprunt);
-        Emprunt savedEmprunt = empruntRepository.save(emprunt);
-        Loaner loaner =  studentService.findOne(emprunt.getLoaner().getId()).get();
-        List<Emprunt> empruntList = loaner.getEmprunts();
-        if(empruntList == null) empruntList = new ArrayList<>();
-        empruntList.add(savedEmprunt);
-        loaner.setEmprunts(empruntList);
-        if(loaner.getLoanerType().equals(LoanerType.STUDENT)){
-            studentService.save(loaner);
+        if (emprunt.getId() == null) {
+            return checkout(emprunt);
+        }
+        if (emprunt.getLivre() != null) {
+            Query livre = query(where("id").is(emprunt.getLivre().getId()));
+            livre.fields().include("name");
+            emprunt.setLivreKeywords(
+                Optional.ofNullable(mongoTemplate.findOne(livre, Livre.class)).map(Livre::getName).map(SearchText::keywords).orElse(null)
+            );
+        }
+        if (emprunt.getId() != null && emprunt.getVersion() == null) {
+            entityCache.findVersion(emprunt.getId(), Emprunt.class).map(Versioned::getVersion).ifPresent(emprunt::setVersion);
+        }
+        Emprunt result = empruntRepository.save(emprunt);
+        entityCache.evict(Emprunt.class, result.getId());
+        return result;
+    }
+
+    /**
+     * Check a livre out to a loaner.
+     * <p>
+     * The livre is claimed with a single conditional update on {@code is_borrowed}, so two desks
+     * can never loan the same livre: the loser gets a {@link LivreAlreadyBorrowedException} without
+     * anything having been written. The same round trip returns the livre name, which is copied onto the
+     * loan for searching. The loan is then inserted; the loaner document is not touched,
+     * its history lives in the emprunt collection. If the insert fails, the claim is undone.
+     *
+     * @param emprunt the emprunt to create, referencing its loaner and livre by id.
+     * @return the persisted entity.
+     * @throws LivreAlreadyBorrowedException if the livre is already borrowed.
+     * @throws EntityNotFoundException if the livre or the loaner does not exist.
+     */
+    public Emprunt checkout(Emprunt emprunt) {
+        log.debug("Request to checkout Emprunt : {}", emprunt);
+        String livreId = emprunt.getLivre().getId();
+        String loanerId = emprunt.getLoaner().getId();
+        if (!mongoTemplate.exists(query(where("id").is(loanerId)), Loaner.class)) {
+            throw new EntityNotFoundException("loaner", loanerId);
+        }
+        emprunt.setId(new ObjectId().toHexString());
+
+        Query claim = query(where("id").is(livreId).and("isBorrowed").ne(true));
+        claim.fields().include("name");
+        Livre claimed = mongoTemplate.findAndModify(
+            claim,
+            EntityVersion.touch(new Update().set("isBorrowed", true).set("emprunt", emprunt)),
+            Livre.class
+        );
+        if (claimed == null) {
+            emprunt.setId(null);
+            if (mongoTemplate.exists(query(where("id").is(livreId)), Livre.class)) {
+                throw new LivreAlreadyBorrowedException(livreId);
+            }
+            throw new EntityNotFoundException("livre", livreId);
+        }
+        livreAvailabilityIndex.setBorrowed(livreId, true);
+        entityCache.evict(Livre.class, livreId);
+
+        emprunt.setLivreKeywords(SearchText.keywords(claimed.getName()));
+        try {
+            return mongoTemplate.insert(emprunt);
+        } catch (RuntimeException e) {
+            releaseUnlessInserted(List.of(emprunt));
+            emprunt.setId(null);
+            throw e;
+        }
+    }
+
+    /**
+     * Check a batch of livres out.
+     * <p>
+     * The whole batch costs a fixed number of round trips whatever its size: one read of the known
+     * loaners, one unordered bulk of conditional claims on the livres, one read of the claims that won,
+     * and one bulk insert of the emprunts. A livre requested twice in the same batch is lent once.
+     *
+     * @param requests the checkouts to perform.
+     * @return the outcome of each checkout, in the order of the requests.
+     */
+    public List<CheckoutResultDTO> checkoutAll(List<CheckoutRequestDTO> requests) {
+        log.debug("Request to checkout a batch of {} Emprunts", requests.size());
+        List<CheckoutResultDTO> results = new ArrayList<>(requests.size());
+        if (requests.isEmpty()) {
+            return results;
+        }
+
+        Query knownLoaners = query(where("id").in(requests.stream().map(CheckoutRequestDTO::getLoanerId).collect(Collectors.toSet())));
+        knownLoaners.fields().include("id");
+        Set<String> loanerIds = mongoTemplate.find(knownLoaners, Loaner.class).stream().map(Loaner::getId).collect(Collectors.toSet());
+
+        Map<String, Emprunt> claims = new LinkedHashMap<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Livre.class);
+        for (CheckoutRequestDTO request : requests) {
+            if (!loanerIds.contains(request.getLoanerId())) {
+                results.add(new CheckoutResultDTO(request, CheckoutStatus.UNKNOWN_LOANER));
+                continue;
+            }
+            CheckoutResultDTO result = new CheckoutResultDTO(request, CheckoutStatus.ALREADY_BORROWED);
+            results.add(result);
+            if (!claims.containsKey(request.getLivreId())) {
+                Emprunt emprunt = new Emprunt()
+                    .id(new ObjectId().toHexString())
+                    .start(request.getStart())
+                    .end(request.getEnd())
+                    .livre(new Livre().id(request.getLivreId()));
+                emprunt.setLoaner(new Loaner().id(request.getLoanerId()));
+                claims.put(request.getLivreId(), emprunt);
+                result.setEmpruntId(emprunt.getId());
+                bulk.updateOne(
+                    query(where("id").is(request.getLivreId()).and("isBorrowed").ne(true)),
+                    EntityVersion.touch(new Update().set("isBorrowed", true).set("emprunt", emprunt))
+                );
+            }
+        }
+        if (claims.isEmpty()) {
+            return results;
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // the claims that applied are found below, and kept or released like the others
+            log.warn("Could not claim every livre of the batch: {}", e.getMessage());
+        }
+
+        Query won = query(where("id").in(claims.keySet()).and("emprunt").in(claims.values()));
+        won.fields().include("name");
+        Map<String, String> names = mongoTemplate
+            .find(won, Livre.class)
+            .stream()
+            .collect(Collectors.toMap(Livre::getId, livre -> Optional.ofNullable(livre.getName()).orElse("")));
+        names.keySet().forEach(livreId -> livreAvailabilityIndex.setBorrowed(livreId, true));
+        entityCache.evictAll(Livre.class, names.keySet());
+        List<Emprunt> created = new ArrayList<>(names.size());
+        names.forEach((livreId, name) -> {
+            Emprunt emprunt = claims.get(livreId);
+            emprunt.setLivreKeywords(SearchText.keywords(name));
+            created.add(emprunt);
+        });
+        try {
+            mongoTemplate.insertAll(created);
+        } catch (RuntimeException e) {
+            releaseUnlessInserted(created);
+            throw e;
+        }
+
+        Set<String> lost = claims.keySet().stream().filter(livreId -> !names.containsKey(livreId)).collect(Collectors.toSet());
+        if (!lost.isEmpty()) {
+            Query existing = query(where("id").in(lost));
+            existing.fields().include("id");
+            Set<String> livreIds = mongoTemplate.find(existing, Livre.class).stream().map(Livre::getId).collect(Collectors.toSet());
+            lost.removeAll(livreIds);
+        }
+        for (CheckoutResultDTO result : results) {
+            if (result.getEmpruntId() != null && names.containsKey(result.getLivreId())) {
+                result.setStatus(CheckoutStatus.CREATED);
+            } else {
+                result.setEmpruntId(null);
+                if (result.getStatus() == CheckoutStatus.ALREADY_BORROWED && lost.contains(result.getLivreId())) {
+                    result.setStatus(CheckoutStatus.UNKNOWN_LIVRE);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Return a batch of livres, for instance the content of a returns cart.
+     * <p>
+     * Returning a livre frees it and closes its emprunt by setting {@code returnedAt}: the emprunt is kept
+     * as history. The livres are read at once, then for each livre the emprunt read is closed if still open,
+     * and only then the livre is freed by a conditional update on this emprunt, so a concurrent return or
+     * checkout cannot be overwritten: the livres that another request changed in between are reported as
+     * not borrowed. A failure between the two updates leaves a closed emprunt on a livre still borrowed,
+     * which is freed by returning the livre again, never an open emprunt on a free livre.
+     *
+     * @param livreIds the ids of the returned livres.
+     * @return the outcome of each return, in the order of the ids.
+     */
+    public List<ReturnResultDTO> returnAll(List<String> livreIds) {
+        log.debug("Request to return a batch of {} Livres", livreIds.size());
+        List<ReturnResultDTO> results = new ArrayList<>(livreIds.size());
+        if (livreIds.isEmpty()) {
+            return results;
+        }
+
+        Query livres = query(where("_id").in(livreIds.stream().map(ObjectIds::toStored).collect(Collectors.toSet())));
+        livres.fields().include("is_borrowed").include("emprunt");
+        Map<String, Document> found = new HashMap<>();
+        mongoTemplate.find(livres, Document.class, "livre").forEach(livre -> found.put(ObjectIds.fromStored(livre.get("_id")), livre));
+
+        Set<String> seen = new HashSet<>();
+        Set<String> returned = new HashSet<>();
+        List<String> closed = new ArrayList<>();
+        try {
+            for (String livreId : livreIds) {
+                Document livre = found.get(livreId);
+                if (livre == null) {
+                    results.add(new ReturnResultDTO(livreId, null, ReturnStatus.UNKNOWN_LIVRE));
+                    continue;
+                }
+                String empruntId = ObjectIds.fromReference(livre.get("emprunt"));
+                if (!Boolean.TRUE.equals(livre.getBoolean("is_borrowed")) || !seen.add(livreId)) {
+                    results.add(new ReturnResultDTO(livreId, null, ReturnStatus.NOT_BORROWED));
+                    continue;
+                }
+                if (empruntId != null && close(empruntId)) {
+                    closed.add(empruntId);
+                }
+                if (free(livre)) {
+                    results.add(new ReturnResultDTO(livreId, empruntId, ReturnStatus.RETURNED));
+                    returned.add(livreId);
+                } else {
+                    results.add(new ReturnResultDTO(livreId, null, ReturnStatus.NOT_BORROWED));
+                }
+            }
+        } finally {
+            returned.forEach(livreId -> livreAvailabilityIndex.setBorrowed(livreId, false));
+            entityCache.evictAll(Livre.class, returned);
+            entityCache.evictAll(Emprunt.class, closed);
+        }
+        return results;
+    }
+
+    /**
+     * Close an emprunt, only if it is still open.
+     *
+     * @return whether the emprunt was closed.
+     */
+    private boolean close(String empruntId) {
+        Query open = query(where("id").is(empruntId).and("returnedAt").is(null));
+        Update returned = EntityVersion.touch(new Update().set("returnedAt", Instant.now()));
+        return mongoTemplate.updateFirst(open, returned, Emprunt.class).getModifiedCount() > 0;
+    }
+
+    /**
+     * Free a livre, only if it is still held by the emprunt read.
+     *
+     * @return whether the livre was freed.
+     */
+    private boolean free(Document livre) {
+        Query held = query(where("_id").is(livre.get("_id")).and("emprunt").is(livre.get("emprunt")).and("is_borrowed").is(true));
+        Update freed = EntityVersion.touch(new Update().set("is_borrowed", false).unset("emprunt"));
+        return mongoTemplate.updateFirst(held, freed, "livre").getMatchedCount() > 0;
+    }
+
+    /**
+     * Free the livres claimed for emprunts whose insert failed. An insert may fail after writing some of the
+     * emprunts, which keep their livres.
+     */
+    private void releaseUnlessInserted(List<Emprunt> emprunts) {
+        Query inserted = query(where("id").in(emprunts.stream().map(Emprunt::getId).collect(Collectors.toList())));
+        inserted.fields().include("id");
+        Set<String> insertedIds = mongoTemplate.find(inserted, Emprunt.class).stream().map(Emprunt::getId).collect(Collectors.toSet());
+        emprunts
+            .stream()
+            .filter(emprunt -> !insertedIds.contains(emprunt.getId()))
+            .forEach(emprunt -> releaseLivre(emprunt.getLivre().getId(), emprunt));
+    }
+
+    /**
+     * Free a livre, only if it is still held by the given emprunt.
+     */
+    private void releaseLivre(String livreId, Emprunt emprunt) {
+        UpdateResult released = mongoTemplate.updateFirst(
+            query(where("id").is(livreId).and("emprunt").is(emprunt)),
+            EntityVersion.touch(new Update().set("isBorrowed", false).unset("emprunt")),
+            Livre.class
+        );
+        if (released.getMatchedCount() > 0) {
+            livreAvailabilityIndex.setBorrowed(livreId, false);
+            entityCache.evict(Livre.class, livreId);
         }
-        else teacherService.save(loaner);
-        Livre livre = livreService.findOne(emprunt.getLivre().getId()).get();
-        livre.setEmprunt(savedEmprunt);
-        livre.setBorrowed(true);
-        livreService.save(livre);
-        return savedEmprunt;
     }
 
     /**
@@ -74,7 +387,8 @@ public class EmpruntService {
     public Optional<Emprunt> partialUpdate(Emprunt emprunt) {
         log.debug("Request to partially update Emprunt : {}", emprunt);
 
-        return empruntRepository
+        // the references are resolved once saved, as resolving sets the dangling ones to null
+        Optional<Emprunt> saved = empruntRepository
             .findById(emprunt.getId())
             .map(existingEmprunt -> {
                 if (emprunt.getStart() != null) {
@@ -83,10 +397,19 @@ public class EmpruntService {
                 if (emprunt.getEnd() != null) {
                     existingEmprunt.setEnd(emprunt.getEnd());
                 }
+                if (emprunt.getVersion() != null) {
+                    existingEmprunt.setVersion(emprunt.getVersion());
+                }
 
                 return existingEmprunt;
             })
             .map(empruntRepository::save);
+        return dbRefBatchResolver
+            .resolve(saved)
+            .map(result -> {
+                entityCache.evict(Emprunt.class, result.getId());
+                return result;
+            });
     }
 
     /**
@@ -97,7 +420,75 @@ public class EmpruntService {
      */
     public Page<Emprunt> findAll(Pageable pageable) {
         log.debug("Request to get all Emprunts");
-        return empruntRepository.findAll(pageable);
+        return dbRefBatchResolver.resolve(empruntRepository.findAll(pageable));
+    }
+
+    /**
+     * Get a slice of the emprunts, in id order, after the given cursor.
+     *
+     * @param cursor the cursor returned with the previous slice, empty for the first slice.
+     * @param size the size of the slice.
+     * @return the slice of entities.
+     */
+    public KeysetSlice<Emprunt> findAll(String cursor, int size) {
+        log.debug("Request to get a slice of Emprunts");
+        return dbRefBatchResolver.resolve(keysetRepository.findAll(new Query(), cursor, size, Emprunt.class));
+    }
+
+    /**
+     * Get the summaries of all the emprunts, for listings.
+     * <p>
+     * Only the listed fields are read, and the names of the loaners and livres of the page are read with one
+     * query each, instead of resolving the references of every emprunt.
+     *
+     * @param pageable the pagination information.
+     * @return the list of summaries.
+     */
+    public Page<EmpruntSummaryDTO> findAllSummaries(Pageable pageable) {
+        log.debug("Request to get all Emprunt summaries");
+        Page<Document> page = projectionRepository.findAll(
+            new Query(),
+            pageable,
+            Emprunt.class,
+            "start",
+            "end",
+            "returned_at",
+            "loaner",
+            "livre"
+        );
+        Set<String> loanerIds = new HashSet<>();
+        Set<String> livreIds = new HashSet<>();
+        for (Document emprunt : page) {
+            Optional.ofNullable(ObjectIds.fromReference(emprunt.get("loaner"))).ifPresent(loanerIds::add);
+            Optional.ofNullable(ObjectIds.fromReference(emprunt.get("livre"))).ifPresent(livreIds::add);
+        }
+        Map<String, Document> loaners = projectionRepository.findAllById(loanerIds, Loaner.class, "first_name", "last_name");
+        Map<String, Document> livres = projectionRepository.findAllById(livreIds, Livre.class, "name");
+        return page.map(emprunt -> {
+            EmpruntSummaryDTO summary = new EmpruntSummaryDTO();
+            summary.setId(ObjectIds.fromStored(emprunt.get("_id")));
+            summary.setStart(instant(emprunt.getDate("start")));
+            summary.setEnd(instant(emprunt.getDate("end")));
+            summary.setReturnedAt(instant(emprunt.getDate("returned_at")));
+            summary.setLoanerId(ObjectIds.fromReference(emprunt.get("loaner")));
+            Document loaner = loaners.get(summary.getLoanerId());
+            if (loaner != null) {
+                summary.setLoanerName(
+                    Stream
+                        .of(loaner.getString("first_name"), loaner.getString("last_name"))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.joining(" "))
+                );
+            }
+            summary.setLivreId(ObjectIds.fromReference(emprunt.get("livre")));
+            Document livre = livres.get(summary.getLivreId());
+            summary.setLivreName(livre == null ? null : livre.getString("name"));
+            return summary;
+        });
+    }
+
+    private static Instant instant(Date date) {
+        return date == null ? null : date.toInstant();
     }
 
     /**
@@ -108,35 +499,82 @@ public class EmpruntService {
      */
     public Optional<Emprunt> findOne(String id) {
         log.debug("Request to get Emprunt : {}", id);
-        return empruntRepository.findById(id);
+        return dbRefBatchResolver.resolve(entityCache.findById(id, Emprunt.class));
     }
 
     /**
-     * Delete the emprunt by id.
+     * Get the version of one emprunt by id, with the versions of its loaner and livre, which are returned with it.
      *
      * @param id the id of the entity.
+     * @return the version of the entity and its references.
+     */
+    public Optional<Versioned> findVersion(String id) {
+        return entityCache.findVersion(id, Emprunt.class, "loaner", "livre", "livre.category").map(Versioned.class::cast);
+    }
+
+    /**
+     * Get the loan history of a loaner, most recent first unless the pageable says otherwise.
+     *
+     * @param loanerId the id of the loaner.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    public Page<Emprunt> findAllByLoaner(String loanerId, Pageable pageable) {
+        log.debug("Request to get Emprunts of Loaner : {}", loanerId);
+        if (pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "start"));
+        }
+        return dbRefBatchResolver.resolve(empruntRepository.findAllByLoaner(new Loaner().id(loanerId), pageable));
+    }
+
+    /**
+     * Delete the emprunt by id, freeing its livre if it still holds it.
+     * <p>
+     * This erases the emprunt from the history: a livre coming back is recorded with {@link #returnAll(List)}.
+     *
+     * @param id the id of the entity.
+     * @throws EntityNotFoundException if the emprunt does not exist.
      */
     public void delete(String id) {
         log.debug("Request to delete Emprunt : {}", id);
-        Emprunt emprunt = empruntRepository.findById(id).orElseThrow();
-        Loaner loaner = studentService.findOne(emprunt.getLoaner().getId()).orElseThrow();
-        List<Emprunt> empruntList = loaner.getEmprunts();
-        loaner.setEmprunts(empruntList.stream().filter(emprunt1 -> !emprunt1.getId().equals(id) ).collect(Collectors.toList()));
-        if(loaner.getLoanerType().equals(LoanerType.STUDENT)){
-            studentService.save(loaner);
-        }
-        else teacherService.save(loaner);
-        Livre livre = livreService.findOne(emprunt.getLivre().getId()).orElseThrow();
-        livre.setEmprunt(null);
-        livre.isBorrowed(false);
-        livreService.save(livre);
+        // the raw reference, not to resolve the livre, which may have been deleted
+        Query byId = query(where("_id").is(ObjectIds.toStored(id)));
+        byId.fields().include("livre");
+        Document emprunt = mongoTemplate.findOne(byId, Document.class, "emprunt");
+        if (emprunt == null) {
+            throw new EntityNotFoundException("emprunt", id);
+        }
+        String livreId = ObjectIds.fromReference(emprunt.get("livre"));
+        if (livreId != null) {
+            releaseLivre(livreId, new Emprunt().id(id));
+        }
         empruntRepository.deleteById(id);
+        entityCache.evict(Emprunt.class, id);
     }
-    public List<Emprunt> findAllByCriteria(String livre){
-        List<Emprunt> empruntList = empruntRepository.findAll();
-        empruntList = empruntList.stream().filter(emprunt ->
-            emprunt.getLivre().getName().toLowerCase().contains(livre.toLowerCase()))
+
+    /**
+     * Search the emprunts by livre name.
+     * <p>
+     * Every keyword of the search must start a keyword of the livre name, ignoring case and accents:
+     * "petit pri" finds "Le Petit Prince". The search runs on the indexed {@code livre_keywords} field.
+     *
+     * @param livre the searched livre name.
+     * @param pageable the pagination information, most recent emprunts first by default.
+     * @return the list of entities.
+     */
+    public Page<Emprunt> findAllByCriteria(String livre, Pageable pageable) {
+        log.debug("Request to search Emprunts by Livre name : {}", livre);
+        List<Criteria> criteria = SearchText
+            .keywords(livre)
+            .stream()
+            .map(keyword -> where("livreKeywords").regex("^" + keyword))
             .collect(Collectors.toList());
-        return empruntList;
+        Query search = criteria.isEmpty() ? new Query() : new Query(new Criteria().andOperator(criteria.toArray(new Criteria[0])));
+        if (pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "start"));
+        }
+        List<Emprunt> content = mongoTemplate.find(Query.of(search).with(pageable), Emprunt.class);
+        dbRefBatchResolver.resolve(content, DbRefBatchResolver.DEFAULT_DEPTH);
+        return PageableExecutionUtils.getPage(content, pageable, () -> mongoTemplate.count(search, Emprunt.class));
     }
 }
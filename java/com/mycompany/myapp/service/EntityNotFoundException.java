@@ -0,0 +1,17 @@
+package com.mycompany.myapp.service;
+
+public class EntityNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entityName;
+
+    public EntityNotFoundException(String entityName, String id) {
+        super(entityName + " " + id + " not found!");
+        this.entityName = entityName;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+}
@@ -0,0 +1,164 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.DBRef;
+import com.mycompany.myapp.domain.Emprunt;
+import com.mycompany.myapp.domain.Livre;
+import com.mycompany.myapp.enums.FileFormat;
+import com.mycompany.myapp.service.util.ObjectIds;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service exporting whole collections as NDJSON or CSV.
+ * <p>
+ * Documents are read from a MongoDB cursor and written one by one to the output, references flattened to
+ * their ids, so the heap used does not depend on the size of the collection. Writing blocks while the
+ * client does not read, and the cursor is not advanced meanwhile.
+ */
+@Service
+public class ExportService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final Map<String, String> LIVRE_COLUMNS = new LinkedHashMap<>();
+
+    private static final Map<String, String> EMPRUNT_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        LIVRE_COLUMNS.put("id", "_id");
+        LIVRE_COLUMNS.put("name", "name");
+        LIVRE_COLUMNS.put("author", "author");
+        LIVRE_COLUMNS.put("isBorrowed", "is_borrowed");
+        LIVRE_COLUMNS.put("categoryId", "category");
+        LIVRE_COLUMNS.put("empruntId", "emprunt");
+
+        EMPRUNT_COLUMNS.put("id", "_id");
+        EMPRUNT_COLUMNS.put("start", "start");
+        EMPRUNT_COLUMNS.put("end", "end");
+        EMPRUNT_COLUMNS.put("returnedAt", "returned_at");
+        EMPRUNT_COLUMNS.put("loanerId", "loaner");
+        EMPRUNT_COLUMNS.put("livreId", "livre");
+    }
+
+    private final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    public ExportService(MongoTemplate mongoTemplate, ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Export all the {@link Livre}s.
+     *
+     * @param format the format of the export.
+     * @param out the output, left open.
+     * @throws IOException if the output cannot be written.
+     */
+    public void exportLivres(FileFormat format, OutputStream out) throws IOException {
+        log.debug("Request to export Livres as {}", format);
+        export(mongoTemplate.getCollectionName(Livre.class), LIVRE_COLUMNS, format, out);
+    }
+
+    /**
+     * Export all the {@link Emprunt}s.
+     *
+     * @param format the format of the export.
+     * @param out the output, left open.
+     * @throws IOException if the output cannot be written.
+     */
+    public void exportEmprunts(FileFormat format, OutputStream out) throws IOException {
+        log.debug("Request to export Emprunts as {}", format);
+        export(mongoTemplate.getCollectionName(Emprunt.class), EMPRUNT_COLUMNS, format, out);
+    }
+
+    private void export(String collection, Map<String, String> columns, FileFormat format, OutputStream out) throws IOException {
+        Query query = new Query().with(Sort.by("_id")).cursorBatchSize(BATCH_SIZE);
+        columns.values().forEach(field -> query.fields().include(field));
+        long count = 0;
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(query, Document.class, collection)) {
+            if (format == FileFormat.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writeCsvLine(writer, columns.keySet());
+                while (documents.hasNext()) {
+                    Document document = documents.next();
+                    writeCsvLine(writer, columns.values().stream().map(field -> value(document.get(field)))::iterator);
+                    count++;
+                }
+                writer.flush();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // the objects are separated by the line breaks only, not by the default space
+                generator.setRootValueSeparator(null);
+                while (documents.hasNext()) {
+                    Document document = documents.next();
+                    generator.writeStartObject();
+                    for (Map.Entry<String, String> column : columns.entrySet()) {
+                        generator.writeObjectField(column.getKey(), value(document.get(column.getValue())));
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    count++;
+                }
+                generator.close();
+            }
+        }
+        log.debug("Exported {} documents of {}", count, collection);
+    }
+
+    /**
+     * Flatten a stored value: ids as strings, references as the id they point to, dates as ISO-8601 instants.
+     */
+    private static Object value(Object stored) {
+        if (stored instanceof ObjectId) {
+            return ((ObjectId) stored).toHexString();
+        }
+        if (stored instanceof Date) {
+            return ((Date) stored).toInstant().toString();
+        }
+        if (stored instanceof DBRef || stored instanceof Document) {
+            return ObjectIds.fromReference(stored);
+        }
+        return stored;
+    }
+
+    private static void writeCsvLine(Writer writer, Iterable<?> values) throws IOException {
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            if (value != null) {
+                String text = value.toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    text = '"' + text.replace("\"", "\"\"") + '"';
+                }
+                writer.write(text);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,17 @@
+package com.mycompany.myapp.service;
+
+public class InvalidCursorException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entityName;
+
+    public InvalidCursorException(String entityName, String cursor) {
+        super("Invalid cursor " + cursor + " for " + entityName);
+        this.entityName = entityName;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+}
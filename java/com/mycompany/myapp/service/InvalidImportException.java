@@ -0,0 +1,17 @@
+package com.mycompany.myapp.service;
+
+public class InvalidImportException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entityName;
+
+    public InvalidImportException(String entityName, String reason) {
+        super("Invalid import of " + entityName + ": " + reason);
+        this.entityName = entityName;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+}
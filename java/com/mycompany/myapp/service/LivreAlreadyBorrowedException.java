@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service;
+
+public class LivreAlreadyBorrowedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LivreAlreadyBorrowedException(String livreId) {
+        super("Livre " + livreId + " is already borrowed!");
+    }
+}
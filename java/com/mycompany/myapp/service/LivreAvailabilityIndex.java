@@ -0,0 +1,258 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Livre;
+import com.mycompany.myapp.service.util.ObjectIds;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of the availability of the {@link Livre}s.
+ * <p>
+ * Each livre gets a small ordinal, reused after a deletion, and the index keeps bitsets over these
+ * ordinals: one for the available livres and one per category. Availability checks are a map lookup and
+ * a bit test, and counts are bitset cardinalities, without any query. The index is loaded from MongoDB
+ * at startup and kept in sync by {@link LivreService} and {@link EmpruntService}. Every change is also
+ * reported to the {@link CategoryFacetService}.
+ */
+@Component
+public class LivreAvailabilityIndex implements InitializingBean {
+
+    private final Logger log = LoggerFactory.getLogger(LivreAvailabilityIndex.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final CategoryFacetService categoryFacetService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
+    private final List<String> ids = new ArrayList<>();
+
+    private final List<String> categories = new ArrayList<>();
+
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    private final BitSet available = new BitSet();
+
+    private final Map<String, BitSet> byCategory = new HashMap<>();
+
+    public LivreAvailabilityIndex(MongoTemplate mongoTemplate, CategoryFacetService categoryFacetService) {
+        this.mongoTemplate = mongoTemplate;
+        this.categoryFacetService = categoryFacetService;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        load();
+    }
+
+    /**
+     * (Re)load the whole index from MongoDB.
+     */
+    public void load() {
+        Query livres = new Query().cursorBatchSize(1000);
+        livres.fields().include("is_borrowed").include("category");
+        lock.writeLock().lock();
+        try (CloseableIterator<Document> iterator = mongoTemplate.stream(livres, Document.class, "livre")) {
+            ordinals.clear();
+            ids.clear();
+            categories.clear();
+            freeOrdinals.clear();
+            available.clear();
+            byCategory.clear();
+            categoryFacetService.clear();
+            iterator.forEachRemaining(livre -> {
+                String categoryId = ObjectIds.fromReference(livre.get("category"));
+                boolean borrowed = Boolean.TRUE.equals(livre.getBoolean("is_borrowed"));
+                categoryFacetService.move(null, false, categoryId, !borrowed);
+                doPut(ObjectIds.fromStored(livre.get("_id")), categoryId, borrowed);
+            });
+            log.info("Loaded the availability of {} Livres, {} available", ordinals.size(), available.cardinality());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or update a livre.
+     *
+     * @param livre the livre, as saved.
+     */
+    public void put(Livre livre) {
+        String categoryId = livre.getCategory() == null ? null : livre.getCategory().getId();
+        lock.writeLock().lock();
+        boolean borrowed = Boolean.TRUE.equals(livre.getIsBorrowed());
+        try {
+            Integer ordinal = ordinals.get(livre.getId());
+            if (ordinal == null) {
+                categoryFacetService.move(null, false, categoryId, !borrowed);
+            } else {
+                categoryFacetService.move(categories.get(ordinal), available.get(ordinal), categoryId, !borrowed);
+            }
+            doPut(livre.getId(), categoryId, borrowed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mark a livre as borrowed or available. Unknown livres are ignored.
+     *
+     * @param livreId the id of the livre.
+     * @param borrowed whether the livre is borrowed.
+     */
+    public void setBorrowed(String livreId, boolean borrowed) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(livreId);
+            if (ordinal != null && available.get(ordinal) == borrowed) {
+                available.set(ordinal, !borrowed);
+                categoryFacetService.move(categories.get(ordinal), borrowed, categories.get(ordinal), !borrowed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a livre.
+     *
+     * @param livreId the id of the livre.
+     */
+    public void remove(String livreId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(livreId);
+            if (ordinal != null) {
+                categoryFacetService.move(categories.get(ordinal), available.get(ordinal), null, false);
+                available.clear(ordinal);
+                clearCategory(ordinal);
+                ids.set(ordinal, null);
+                freeOrdinals.push(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param livreId the id of the livre.
+     * @return whether the livre is known and available.
+     */
+    public boolean isAvailable(String livreId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(livreId);
+            return ordinal != null && available.get(ordinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of available livres.
+     */
+    public int countAvailable() {
+        lock.readLock().lock();
+        try {
+            return available.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param categoryId the id of the category.
+     * @return the number of available livres of the category.
+     */
+    public int countAvailable(String categoryId) {
+        lock.readLock().lock();
+        try {
+            BitSet category = byCategory.get(categoryId);
+            if (category == null) {
+                return 0;
+            }
+            BitSet availableInCategory = (BitSet) category.clone();
+            availableInCategory.and(available);
+            return availableInCategory.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get a page of the ids of the available livres, in ordinal order.
+     *
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the page of ids.
+     */
+    public Page<String> findAvailable(Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            List<String> content = new ArrayList<>(pageable.getPageSize());
+            long skip = pageable.getOffset();
+            for (int ordinal = available.nextSetBit(0); ordinal >= 0 && content.size() < pageable.getPageSize(); ordinal = available.nextSetBit(ordinal + 1)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    content.add(ids.get(ordinal));
+                }
+            }
+            return new PageImpl<>(content, pageable, available.cardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void doPut(String livreId, String categoryId, boolean borrowed) {
+        Integer ordinal = ordinals.get(livreId);
+        if (ordinal == null) {
+            ordinal = freeOrdinals.isEmpty() ? ids.size() : freeOrdinals.pop();
+            ordinals.put(livreId, ordinal);
+            if (ordinal == ids.size()) {
+                ids.add(livreId);
+                categories.add(null);
+            } else {
+                ids.set(ordinal, livreId);
+            }
+        } else {
+            clearCategory(ordinal);
+        }
+        available.set(ordinal, !borrowed);
+        categories.set(ordinal, categoryId);
+        if (categoryId != null) {
+            byCategory.computeIfAbsent(categoryId, id -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void clearCategory(int ordinal) {
+        String categoryId = categories.get(ordinal);
+        if (categoryId != null) {
+            BitSet category = byCategory.get(categoryId);
+            category.clear(ordinal);
+            if (category.isEmpty()) {
+                byCategory.remove(categoryId);
+            }
+            categories.set(ordinal, null);
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mycompany.myapp.domain.Livre;
+import com.mycompany.myapp.enums.FileFormat;
+import com.mycompany.myapp.repository.EntityCache;
+import com.mycompany.myapp.service.dto.ImportErrorDTO;
+import com.mycompany.myapp.service.dto.ImportResultDTO;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Service importing {@link Livre}s in bulk from CSV or NDJSON.
+ * <p>
+ * The input is parsed row by row and written in batches: each batch costs one query for the livres that
+ * already exist with the same name and author, which are skipped, and one unordered bulk insert. Categories
+ * are looked up by name in the {@link CategoryRegistry}. Only one batch is held in memory, whatever the size of the input.
+ * <p>
+ * CSV input starts with a header naming its columns: {@code name}, {@code author} and {@code category},
+ * in any order. NDJSON input holds one object per line with the same fields. A CSV record, quoted line breaks
+ * included, or an NDJSON line is at most {@value #MAX_RECORD_LENGTH} characters long: longer ones are reported
+ * as failed rows, and only their first characters are read into memory.
+ */
+@Service
+public class LivreImportService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final int MAX_ERRORS = 100;
+
+    private static final int MAX_RECORD_LENGTH = 10_000;
+
+    private final Logger log = LoggerFactory.getLogger(LivreImportService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final CategoryRegistry categoryRegistry;
+
+    private final ObjectMapper objectMapper;
+
+    private final LivreAvailabilityIndex livreAvailabilityIndex;
+
+    private final LivreSearchIndex livreSearchIndex;
+
+    private final LivreSuggestIndex livreSuggestIndex;
+
+    private final EntityCache entityCache;
+
+    public LivreImportService(
+        MongoTemplate mongoTemplate,
+        CategoryRegistry categoryRegistry,
+        ObjectMapper objectMapper,
+        LivreAvailabilityIndex livreAvailabilityIndex,
+        LivreSearchIndex livreSearchIndex,
+        LivreSuggestIndex livreSuggestIndex,
+        EntityCache entityCache
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.categoryRegistry = categoryRegistry;
+        this.objectMapper = objectMapper;
+        this.livreAvailabilityIndex = livreAvailabilityIndex;
+        this.livreSearchIndex = livreSearchIndex;
+        this.livreSuggestIndex = livreSuggestIndex;
+        this.entityCache = entityCache;
+    }
+
+    /**
+     * Import the livres read from the given input.
+     *
+     * @param format the format of the input.
+     * @param in the input, left open.
+     * @return the outcome of the import, with at most {@value #MAX_ERRORS} errors detailed.
+     * @throws IOException if the input cannot be read.
+     * @throws InvalidImportException if the CSV header has no {@code name} column, before any livre is imported.
+     */
+    public ImportResultDTO importLivres(FileFormat format, InputStream in) throws IOException {
+        log.debug("Request to import Livres from {}", format);
+        ImportResultDTO result = new ImportResultDTO();
+        LineReader lines = new LineReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowReader rows = format == FileFormat.CSV ? new CsvRowReader(lines) : new NdjsonRowReader(lines);
+        Map<String, Row> batch = new LinkedHashMap<>();
+        for (Row row = rows.next(); row != null; row = rows.next()) {
+            result.setRead(result.getRead() + 1);
+            if (row.error == null && (row.name == null || row.name.isBlank())) {
+                row.error = "name is required";
+            }
+            if (row.error == null && row.category != null && !row.category.isBlank()) {
+                row.livre.setCategory(categoryRegistry.findByName(row.category).orElse(null));
+                if (row.livre.getCategory() == null) {
+                    row.error = "unknown category " + row.category;
+                }
+            }
+            if (row.error != null) {
+                fail(result, row.line, row.error);
+            } else if (batch.putIfAbsent(key(row.name, row.author), row) != null) {
+                result.setDuplicates(result.getDuplicates() + 1);
+            }
+            if (batch.size() >= BATCH_SIZE) {
+                flush(batch, result);
+            }
+        }
+        flush(batch, result);
+        log.info(
+            "Imported Livres: {} read, {} created, {} duplicates, {} failed",
+            result.getRead(),
+            result.getCreated(),
+            result.getDuplicates(),
+            result.getFailed()
+        );
+        return result;
+    }
+
+    /**
+     * Insert a batch of rows, skipping the livres that already exist, and clear it.
+     */
+    private void flush(Map<String, Row> batch, ImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Query existing = new Query(
+            new Criteria()
+                .orOperator(
+                    batch.values().stream().map(row -> where("name").is(row.name).and("author").is(row.author)).toArray(Criteria[]::new)
+                )
+        );
+        existing.fields().include("name").include("author");
+        for (Livre livre : mongoTemplate.find(existing, Livre.class)) {
+            if (batch.remove(key(livre.getName(), livre.getAuthor())) != null) {
+                result.setDuplicates(result.getDuplicates() + 1);
+            }
+        }
+
+        List<Row> rows = new ArrayList<>(batch.values());
+        batch.clear();
+        if (rows.isEmpty()) {
+            return;
+        }
+        Set<Integer> failed = new HashSet<>();
+        try {
+            mongoTemplate
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, Livre.class)
+                .insert(rows.stream().map(row -> row.livre).collect(Collectors.toList()))
+                .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(error.getIndex());
+                fail(result, rows.get(error.getIndex()).line, error.getMessage());
+            }
+        }
+        List<String> created = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (!failed.contains(i)) {
+                Livre livre = rows.get(i).livre;
+                livreAvailabilityIndex.put(livre);
+                livreSearchIndex.put(livre);
+                livreSuggestIndex.put(livre);
+                created.add(livre.getId());
+            }
+        }
+        result.setCreated(result.getCreated() + created.size());
+        // the other nodes add the new livres to their indexes
+        entityCache.evictAll(Livre.class, created);
+        log.info("Importing Livres: {} read, {} created so far", result.getRead(), result.getCreated());
+    }
+
+    private static void fail(ImportResultDTO result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_ERRORS) {
+            result.getErrors().add(new ImportErrorDTO(line, message));
+        }
+    }
+
+    private static String key(String name, String author) {
+        return name + '\u0000' + author;
+    }
+
+    /**
+     * A parsed row, with the livre to insert or the reason why it cannot be.
+     */
+    private static final class Row {
+
+        private final long line;
+
+        private final String name;
+
+        private final String author;
+
+        private final String category;
+
+        private final Livre livre;
+
+        private String error;
+
+        private Row(long line, String name, String author, String category) {
+            this.line = line;
+            this.name = name == null ? null : name.trim();
+            this.author = author == null || author.isBlank() ? null : author.trim();
+            this.category = category;
+            this.livre = new Livre().id(new ObjectId().toHexString()).name(this.name).author(this.author).isBorrowed(false);
+            // bulk inserts do not initialize the version
+            this.livre.setVersion(0L);
+        }
+
+        private static Row error(long line, String error) {
+            Row row = new Row(line, null, null, null);
+            row.error = error;
+            return row;
+        }
+    }
+
+    /**
+     * Reads the input line by line, each line cut at {@value #MAX_RECORD_LENGTH} characters: the rest of a longer
+     * line is skipped, so that a line without end is never held in memory.
+     */
+    private static final class LineReader {
+
+        private final Reader reader;
+
+        private final char[] buffer = new char[8192];
+
+        private int position;
+
+        private int limit;
+
+        private boolean truncated;
+
+        private LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * @return the next line, without its line break and cut at {@value #MAX_RECORD_LENGTH} characters,
+         * {@code null} at the end of the input.
+         */
+        private String readLine() throws IOException {
+            truncated = false;
+            StringBuilder text = null;
+            while (true) {
+                if (position == limit) {
+                    int read = reader.read(buffer);
+                    if (read < 0) {
+                        return text == null ? null : withoutCarriageReturn(text);
+                    }
+                    position = 0;
+                    limit = read;
+                }
+                if (text == null) {
+                    text = new StringBuilder();
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                int kept = Math.min(position - start, MAX_RECORD_LENGTH - text.length());
+                text.append(buffer, start, kept);
+                truncated |= kept < position - start;
+                if (position < limit) {
+                    position++;
+                    return withoutCarriageReturn(text);
+                }
+            }
+        }
+
+        /**
+         * @return whether the last line read was cut.
+         */
+        private boolean isTruncated() {
+            return truncated;
+        }
+
+        private static String withoutCarriageReturn(StringBuilder text) {
+            int length = text.length();
+            return length > 0 && text.charAt(length - 1) == '\r' ? text.substring(0, length - 1) : text.toString();
+        }
+    }
+
+    private interface RowReader {
+        /**
+         * @return the next row, {@code null} at the end of the input.
+         */
+        Row next() throws IOException;
+    }
+
+    private static final class CsvRowReader implements RowReader {
+
+        private final LineReader lines;
+
+        private long line;
+
+        private long recordLine;
+
+        private String recordError;
+
+        private Map<String, Integer> columns;
+
+        private CsvRowReader(LineReader lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (columns == null) {
+                List<String> header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+                columns = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+                if (recordError != null || !columns.containsKey("name")) {
+                    throw new InvalidImportException("livre", "the header has no name column");
+                }
+            }
+            List<String> record = readRecord();
+            while (record != null && record.size() == 1 && record.get(0).isBlank()) {
+                record = readRecord();
+            }
+            if (record == null) {
+                return null;
+            }
+            if (recordError != null) {
+                return Row.error(recordLine, recordError);
+            }
+            return new Row(recordLine, column(record, "name"), column(record, "author"), column(record, "category"));
+        }
+
+        private String column(List<String> record, String name) {
+            Integer index = columns.get(name);
+            return index == null || index >= record.size() ? null : record.get(index);
+        }
+
+        /**
+         * Read one record, which spans several lines when a quoted field contains line breaks. A record left
+         * unterminated or longer than {@value #MAX_RECORD_LENGTH} characters is read up to the line where this
+         * is found, and its error is kept in {@link #recordError}.
+         */
+        private List<String> readRecord() throws IOException {
+            String text = lines.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            recordLine = line;
+            recordError = null;
+            long length = lines.isTruncated() ? MAX_RECORD_LENGTH + 1 : text.length();
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    if (length > MAX_RECORD_LENGTH) {
+                        break;
+                    }
+                    String next = lines.readLine();
+                    if (next == null) {
+                        recordError = "unterminated quoted field";
+                        break;
+                    }
+                    line++;
+                    length += lines.isTruncated() ? MAX_RECORD_LENGTH + 1 : next.length() + 1;
+                    field.append('\n');
+                    text = next;
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            if (length > MAX_RECORD_LENGTH) {
+                recordError = "record longer than " + MAX_RECORD_LENGTH + " characters";
+            }
+            return fields;
+        }
+    }
+
+    private final class NdjsonRowReader implements RowReader {
+
+        private final LineReader lines;
+
+        private long line;
+
+        private NdjsonRowReader(LineReader lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text = lines.readLine();
+            line++;
+            while (text != null && text.isBlank() && !lines.isTruncated()) {
+                text = lines.readLine();
+                line++;
+            }
+            if (text == null) {
+                return null;
+            }
+            if (lines.isTruncated()) {
+                return Row.error(line, "line longer than " + MAX_RECORD_LENGTH + " characters");
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (IOException e) {
+                return Row.error(line, "malformed JSON");
+            }
+            if (!node.isObject()) {
+                return Row.error(line, "not a JSON object");
+            }
+            return new Row(line, node.path("name").textValue(), node.path("author").textValue(), node.path("category").textValue());
+        }
+    }
+}
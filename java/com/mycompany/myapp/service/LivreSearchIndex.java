@@ -0,0 +1,227 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Livre;
+import com.mycompany.myapp.service.util.ObjectIds;
+import com.mycompany.myapp.service.util.SearchText;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory full-text index of the {@link Livre}s, over their name and author.
+ * <p>
+ * Names and authors are split into keywords with {@link SearchText}, so searches ignore case and accents.
+ * Each keyword points to the livres containing it, and results are ranked with BM25, a match in the name
+ * weighing twice a match in the author. A search only visits the livres containing one of its keywords.
+ * The index is loaded from MongoDB at startup and kept in sync by {@link LivreService}.
+ */
+@Component
+public class LivreSearchIndex implements InitializingBean {
+
+    private static final int NAME = 0;
+
+    private static final int AUTHOR = 1;
+
+    private static final double[] BOOSTS = { 2.0, 1.0 };
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    private final Logger log = LoggerFactory.getLogger(LivreSearchIndex.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** For each keyword, the livres containing it and how many times, by field. */
+    private final Map<String, Map<String, int[]>> postings = new HashMap<>();
+
+    /** For each livre, its keywords and the length of its fields. */
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private final long[] totalLengths = new long[2];
+
+    public LivreSearchIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        load();
+    }
+
+    /**
+     * (Re)load the whole index from MongoDB.
+     */
+    public void load() {
+        Query livres = new Query().cursorBatchSize(1000);
+        livres.fields().include("name").include("author");
+        lock.writeLock().lock();
+        try (CloseableIterator<Document> iterator = mongoTemplate.stream(livres, Document.class, "livre")) {
+            postings.clear();
+            entries.clear();
+            totalLengths[NAME] = 0;
+            totalLengths[AUTHOR] = 0;
+            iterator.forEachRemaining(livre ->
+                doPut(ObjectIds.fromStored(livre.get("_id")), livre.getString("name"), livre.getString("author"))
+            );
+            log.info("Indexed {} Livres for search, {} keywords", entries.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or update a livre.
+     *
+     * @param livre the livre, as saved.
+     */
+    public void put(Livre livre) {
+        lock.writeLock().lock();
+        try {
+            doRemove(livre.getId());
+            doPut(livre.getId(), livre.getName(), livre.getAuthor());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a livre.
+     *
+     * @param livreId the id of the livre.
+     */
+    public void remove(String livreId) {
+        lock.writeLock().lock();
+        try {
+            doRemove(livreId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search the livres whose name or author contain keywords of the given text, best matches first.
+     *
+     * @param text the searched text.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the page of the ids of the matching livres.
+     */
+    public Page<String> search(String text, Pageable pageable) {
+        List<String> keywords = SearchText.keywords(text);
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = new HashMap<>();
+            double[] averageLengths = {
+                entries.isEmpty() ? 1 : (double) totalLengths[NAME] / entries.size(),
+                entries.isEmpty() ? 1 : (double) totalLengths[AUTHOR] / entries.size(),
+            };
+            for (String keyword : keywords) {
+                Map<String, int[]> livres = postings.getOrDefault(keyword, Collections.emptyMap());
+                double idf = Math.log(1 + (entries.size() - livres.size() + 0.5) / (livres.size() + 0.5));
+                livres.forEach((livreId, frequencies) -> {
+                    Entry entry = entries.get(livreId);
+                    double score = 0;
+                    for (int field = NAME; field <= AUTHOR; field++) {
+                        int frequency = frequencies[field];
+                        if (frequency > 0) {
+                            double norm = K1 * (1 - B + B * entry.lengths[field] / Math.max(averageLengths[field], 1));
+                            score += BOOSTS[field] * idf * frequency * (K1 + 1) / (frequency + norm);
+                        }
+                    }
+                    scores.merge(livreId, score, Double::sum);
+                });
+            }
+            return new PageImpl<>(top(scores, pageable), pageable, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cut the requested page out of the scores, keeping only the best {@code offset + size} of them sorted.
+     */
+    private List<String> top(Map<String, Double> scores, Pageable pageable) {
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        if (pageable.getOffset() >= scores.size()) {
+            return Collections.emptyList();
+        }
+        Comparator<Map.Entry<String, Double>> ranking = Map.Entry
+            .<String, Double>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(ranking.reversed());
+        for (Map.Entry<String, Double> score : scores.entrySet()) {
+            best.add(score);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<String, Double>> sorted = new ArrayList<>(best);
+        sorted.sort(ranking);
+        List<String> page = new ArrayList<>(pageable.getPageSize());
+        for (int i = (int) pageable.getOffset(); i < sorted.size(); i++) {
+            page.add(sorted.get(i).getKey());
+        }
+        return page;
+    }
+
+    private void doPut(String livreId, String name, String author) {
+        List<String> nameTokens = SearchText.tokens(name);
+        List<String> authorTokens = SearchText.tokens(author);
+        Map<String, int[]> frequencies = new HashMap<>();
+        nameTokens.forEach(token -> frequencies.computeIfAbsent(token, t -> new int[2])[NAME]++);
+        authorTokens.forEach(token -> frequencies.computeIfAbsent(token, t -> new int[2])[AUTHOR]++);
+        frequencies.forEach((token, frequency) -> postings.computeIfAbsent(token, t -> new HashMap<>()).put(livreId, frequency));
+        Entry entry = new Entry(new ArrayList<>(frequencies.keySet()), new int[] { nameTokens.size(), authorTokens.size() });
+        entries.put(livreId, entry);
+        totalLengths[NAME] += entry.lengths[NAME];
+        totalLengths[AUTHOR] += entry.lengths[AUTHOR];
+    }
+
+    private void doRemove(String livreId) {
+        Entry entry = entries.remove(livreId);
+        if (entry == null) {
+            return;
+        }
+        for (String keyword : entry.keywords) {
+            Map<String, int[]> livres = postings.get(keyword);
+            livres.remove(livreId);
+            if (livres.isEmpty()) {
+                postings.remove(keyword);
+            }
+        }
+        totalLengths[NAME] -= entry.lengths[NAME];
+        totalLengths[AUTHOR] -= entry.lengths[AUTHOR];
+    }
+
+    private static final class Entry {
+
+        private final List<String> keywords;
+
+        private final int[] lengths;
+
+        private Entry(List<String> keywords, int[] lengths) {
+            this.keywords = keywords;
+            this.lengths = lengths;
+        }
+    }
+}
@@ -1,28 +1,94 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Emprunt;
 import com.mycompany.myapp.domain.Livre;
+import com.mycompany.myapp.domain.Versioned;
+import com.mycompany.myapp.repository.CacheInvalidationListener;
+import com.mycompany.myapp.repository.DbRefBatchResolver;
+import com.mycompany.myapp.repository.EntityCache;
+import com.mycompany.myapp.repository.EntityVersion;
+import com.mycompany.myapp.repository.KeysetRepository;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.repository.LivreRepository;
+import com.mycompany.myapp.repository.ProjectionRepository;
+import com.mycompany.myapp.service.dto.LivreSummaryDTO;
+import com.mycompany.myapp.service.util.ObjectIds;
+import com.mycompany.myapp.service.util.SearchText;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 /**
  * Service Implementation for managing {@link Livre}.
  */
 @Service
-public class LivreService {
+public class LivreService implements CacheInvalidationListener {
 
     private final Logger log = LoggerFactory.getLogger(LivreService.class);
 
     private final LivreRepository livreRepository;
 
-    public LivreService(LivreRepository livreRepository) {
+    private final MongoTemplate mongoTemplate;
+
+    private final LivreAvailabilityIndex livreAvailabilityIndex;
+
+    private final LivreSearchIndex livreSearchIndex;
+
+    private final LivreSuggestIndex livreSuggestIndex;
+
+    private final KeysetRepository keysetRepository;
+
+    private final ProjectionRepository projectionRepository;
+
+    private final DbRefBatchResolver dbRefBatchResolver;
+
+    private final CategoryRegistry categoryRegistry;
+
+    private final EntityCache entityCache;
+
+    public LivreService(
+        LivreRepository livreRepository,
+        MongoTemplate mongoTemplate,
+        LivreAvailabilityIndex livreAvailabilityIndex,
+        LivreSearchIndex livreSearchIndex,
+        LivreSuggestIndex livreSuggestIndex,
+        KeysetRepository keysetRepository,
+        ProjectionRepository projectionRepository,
+        DbRefBatchResolver dbRefBatchResolver,
+        CategoryRegistry categoryRegistry,
+        EntityCache entityCache
+    ) {
         this.livreRepository = livreRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.livreAvailabilityIndex = livreAvailabilityIndex;
+        this.livreSearchIndex = livreSearchIndex;
+        this.livreSuggestIndex = livreSuggestIndex;
+        this.keysetRepository = keysetRepository;
+        this.projectionRepository = projectionRepository;
+        this.dbRefBatchResolver = dbRefBatchResolver;
+        this.categoryRegistry = categoryRegistry;
+        this.entityCache = entityCache;
     }
 
     /**
@@ -33,7 +99,20 @@ public class LivreService {
      */
     public Livre save(Livre livre) {
         log.debug("Request to save Livre : {}", livre);
-        return livreRepository.save(livre);
+        if (livre.getCategory() != null && livre.getCategory().getId() != null) {
+            categoryRegistry.findById(livre.getCategory().getId()).ifPresent(livre::setCategory);
+        }
+        if (livre.getId() != null && livre.getVersion() == null) {
+            // clients that do not send the version overwrite the stored livre, as they did before versions
+            entityCache.findVersion(livre.getId(), Livre.class).map(Versioned::getVersion).ifPresent(livre::setVersion);
+        }
+        Livre result = livreRepository.save(livre);
+        entityCache.evict(Livre.class, result.getId());
+        livreAvailabilityIndex.put(result);
+        livreSearchIndex.put(result);
+        livreSuggestIndex.put(result);
+        updateEmpruntKeywords(result);
+        return result;
     }
 
     /**
@@ -45,7 +124,8 @@ public class LivreService {
     public Optional<Livre> partialUpdate(Livre livre) {
         log.debug("Request to partially update Livre : {}", livre);
 
-        return livreRepository
+        // the references are resolved once saved, as resolving sets the dangling ones to null
+        Optional<Livre> saved = livreRepository
             .findById(livre.getId())
             .map(existingLivre -> {
                 if (livre.getName() != null) {
@@ -57,10 +137,45 @@ public class LivreService {
                 if (livre.getIsBorrowed() != null) {
                     existingLivre.setIsBorrowed(livre.getIsBorrowed());
                 }
+                if (livre.getVersion() != null) {
+                    existingLivre.setVersion(livre.getVersion());
+                }
 
                 return existingLivre;
             })
             .map(livreRepository::save);
+        return dbRefBatchResolver
+            .resolve(saved)
+            .map(result -> {
+                entityCache.evict(Livre.class, result.getId());
+                livreAvailabilityIndex.put(result);
+                livreSearchIndex.put(result);
+                livreSuggestIndex.put(result);
+                if (livre.getName() != null) {
+                    updateEmpruntKeywords(result);
+                }
+                return result;
+            });
+    }
+
+    /**
+     * Copy the keywords of the livre name onto its emprunts, where they are searched.
+     * Emprunts that are already up to date are not rewritten.
+     */
+    private void updateEmpruntKeywords(Livre livre) {
+        List<String> keywords = SearchText.keywords(livre.getName());
+        Query outdated = query(where("livre").is(livre).and("livreKeywords").ne(keywords));
+        outdated.fields().include("id");
+        List<String> empruntIds = mongoTemplate.find(outdated, Emprunt.class).stream().map(Emprunt::getId).collect(Collectors.toList());
+        if (empruntIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+            query(where("id").in(empruntIds)),
+            EntityVersion.touch(new Update().set("livreKeywords", keywords)),
+            Emprunt.class
+        );
+        entityCache.evictAll(Emprunt.class, empruntIds);
     }
 
     /**
@@ -71,7 +186,45 @@ public class LivreService {
      */
     public Page<Livre> findAll(Pageable pageable) {
         log.debug("Request to get all Livres");
-        return livreRepository.findAll(pageable);
+        return dbRefBatchResolver.resolve(livreRepository.findAll(pageable));
+    }
+
+    /**
+     * Get the summaries of all the livres, for listings.
+     * <p>
+     * Only the listed fields are read, and the names of the categories are taken from the {@link CategoryRegistry},
+     * instead of resolving the references of every livre.
+     *
+     * @param pageable the pagination information.
+     * @return the list of summaries.
+     */
+    public Page<LivreSummaryDTO> findAllSummaries(Pageable pageable) {
+        log.debug("Request to get all Livre summaries");
+        Page<Document> page = projectionRepository.findAll(new Query(), pageable, Livre.class, "name", "author", "is_borrowed", "category");
+        return page.map(livre -> {
+            LivreSummaryDTO summary = new LivreSummaryDTO();
+            summary.setId(ObjectIds.fromStored(livre.get("_id")));
+            summary.setName(livre.getString("name"));
+            summary.setAuthor(livre.getString("author"));
+            summary.setAvailable(!Boolean.TRUE.equals(livre.getBoolean("is_borrowed")));
+            summary.setCategoryId(ObjectIds.fromReference(livre.get("category")));
+            if (summary.getCategoryId() != null) {
+                categoryRegistry.findById(summary.getCategoryId()).map(Category::getName).ifPresent(summary::setCategoryName);
+            }
+            return summary;
+        });
+    }
+
+    /**
+     * Get a slice of the livres, in id order, after the given cursor.
+     *
+     * @param cursor the cursor returned with the previous slice, empty for the first slice.
+     * @param size the size of the slice.
+     * @return the slice of entities.
+     */
+    public KeysetSlice<Livre> findAll(String cursor, int size) {
+        log.debug("Request to get a slice of Livres");
+        return dbRefBatchResolver.resolve(keysetRepository.findAll(new Query(), cursor, size, Livre.class));
     }
 
     /**
@@ -82,7 +235,17 @@ public class LivreService {
      */
     public Optional<Livre> findOne(String id) {
         log.debug("Request to get Livre : {}", id);
-        return livreRepository.findById(id);
+        return dbRefBatchResolver.resolve(entityCache.findById(id, Livre.class));
+    }
+
+    /**
+     * Get the version of one livre by id, with the versions of its category and emprunt, which are returned with it.
+     *
+     * @param id the id of the entity.
+     * @return the version of the entity and its references.
+     */
+    public Optional<Versioned> findVersion(String id) {
+        return entityCache.findVersion(id, Livre.class, "category", "emprunt", "emprunt.loaner").map(Versioned.class::cast);
     }
 
     /**
@@ -93,10 +256,91 @@ public class LivreService {
     public void delete(String id) {
         log.debug("Request to delete Livre : {}", id);
         livreRepository.deleteById(id);
+        entityCache.evict(Livre.class, id);
+        livreAvailabilityIndex.remove(id);
+        livreSearchIndex.remove(id);
+        livreSuggestIndex.remove(id);
     }
 
+    @Override
+    public String getCacheName() {
+        return LivreRepository.LIVRES_BY_ID_CACHE;
+    }
 
-    public List<Livre> findAllNotBorrowed() {
-        return livreRepository.findAllByIsBorrowed(false);
+    /**
+     * Refresh the indexes with the livres changed on another node.
+     *
+     * @param ids the ids of the livres, or {@code null} to reload the indexes.
+     */
+    @Override
+    public void onInvalidation(Collection<String> ids) {
+        if (ids == null) {
+            livreAvailabilityIndex.load();
+            livreSearchIndex.load();
+            livreSuggestIndex.load();
+            return;
+        }
+        Set<String> deleted = new HashSet<>(ids);
+        for (Livre livre : dbRefBatchResolver.resolve(entityCache.findAllById(ids, Livre.class), 1)) {
+            deleted.remove(livre.getId());
+            livreAvailabilityIndex.put(livre);
+            livreSearchIndex.put(livre);
+            livreSuggestIndex.put(livre);
+        }
+        for (String id : deleted) {
+            livreAvailabilityIndex.remove(id);
+            livreSearchIndex.remove(id);
+            livreSuggestIndex.remove(id);
+        }
+    }
+
+    /**
+     * Get the livres that are not borrowed.
+     * <p>
+     * The page is cut from the {@link LivreAvailabilityIndex}, so only the livres of the page are read.
+     *
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the list of entities.
+     */
+    public Page<Livre> findAllNotBorrowed(Pageable pageable) {
+        log.debug("Request to get all not borrowed Livres");
+        return findAllById(livreAvailabilityIndex.findAvailable(pageable));
+    }
+
+    /**
+     * Search the livres by name and author, best matches first.
+     * <p>
+     * The search runs on the {@link LivreSearchIndex}, ignoring case and accents; only the livres of the
+     * page are read.
+     *
+     * @param text the searched text.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the list of entities.
+     */
+    public Page<Livre> search(String text, Pageable pageable) {
+        log.debug("Request to search Livres : {}", text);
+        return findAllById(livreSearchIndex.search(text, pageable));
+    }
+
+    /**
+     * Suggest livre names and authors for the text typed so far, from the {@link LivreSuggestIndex}.
+     *
+     * @param text the text typed so far.
+     * @param limit the maximum number of suggestions.
+     * @return the suggested names and authors.
+     */
+    public List<String> suggest(String text, int limit) {
+        log.debug("Request to suggest Livres : {}", text);
+        return livreSuggestIndex.suggest(text, limit);
+    }
+
+    /**
+     * Read the livres of a page of ids, keeping the order of the ids.
+     */
+    private Page<Livre> findAllById(Page<String> ids) {
+        Map<String, Livre> livres = new HashMap<>();
+        livreRepository.findAllById(ids.getContent()).forEach(livre -> livres.put(livre.getId(), livre));
+        List<Livre> content = ids.getContent().stream().map(livres::get).filter(Objects::nonNull).collect(Collectors.toList());
+        return dbRefBatchResolver.resolve(new PageImpl<>(content, ids.getPageable(), ids.getTotalElements()));
     }
 }
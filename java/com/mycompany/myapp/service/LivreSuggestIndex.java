@@ -0,0 +1,177 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Livre;
+import com.mycompany.myapp.service.util.ObjectIds;
+import com.mycompany.myapp.service.util.SearchText;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory prefix index of the names and authors of the {@link Livre}s, for type-ahead suggestions.
+ * <p>
+ * Every name and author is registered under its normalized form, see {@link SearchText}, and under each
+ * of its word starts, so "petit" suggests "Le Petit Prince". Keys are kept sorted in a skip list: a
+ * suggestion is a range scan stopping after the requested number of distinct texts, and reads take no lock.
+ * The index is loaded from MongoDB at startup and kept in sync by {@link LivreService}.
+ */
+@Component
+public class LivreSuggestIndex implements InitializingBean {
+
+    /** Phrases longer than this are only registered under their first word starts. */
+    private static final int MAX_WORD_STARTS = 8;
+
+    private final Logger log = LoggerFactory.getLogger(LivreSuggestIndex.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    /** For each key, the suggested texts and the number of livres having them. */
+    private final ConcurrentNavigableMap<String, Map<String, Integer>> suggestions = new ConcurrentSkipListMap<>();
+
+    /** For each livre, its suggested texts. */
+    private final Map<String, List<String>> texts = new HashMap<>();
+
+    public LivreSuggestIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        load();
+    }
+
+    /**
+     * (Re)load the whole index from MongoDB.
+     */
+    public synchronized void load() {
+        Query livres = new Query().cursorBatchSize(1000);
+        livres.fields().include("name").include("author");
+        try (CloseableIterator<Document> iterator = mongoTemplate.stream(livres, Document.class, "livre")) {
+            suggestions.clear();
+            texts.clear();
+            iterator.forEachRemaining(livre ->
+                doPut(ObjectIds.fromStored(livre.get("_id")), livre.getString("name"), livre.getString("author"))
+            );
+        }
+        log.info("Indexed {} Livres for suggestions, {} keys, about {} KiB", texts.size(), suggestions.size(), estimateSize() / 1024);
+    }
+
+    /**
+     * Add or update a livre.
+     *
+     * @param livre the livre, as saved.
+     */
+    public synchronized void put(Livre livre) {
+        doRemove(livre.getId());
+        doPut(livre.getId(), livre.getName(), livre.getAuthor());
+    }
+
+    /**
+     * Remove a livre.
+     *
+     * @param livreId the id of the livre.
+     */
+    public synchronized void remove(String livreId) {
+        doRemove(livreId);
+    }
+
+    /**
+     * Suggest the names and authors starting with the given text, or having a word starting with it.
+     *
+     * @param text the text typed so far.
+     * @param limit the maximum number of suggestions.
+     * @return the suggested names and authors, in alphabetical order of their matching part.
+     */
+    public List<String> suggest(String text, int limit) {
+        String prefix = key(text);
+        if (prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (Map<String, Integer> matches : suggestions.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (String match : matches.keySet()) {
+                result.add(match);
+                if (result.size() >= limit) {
+                    return new ArrayList<>(result);
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private void doPut(String livreId, String name, String author) {
+        List<String> livreTexts = new ArrayList<>(2);
+        for (String text : new String[] { name, author }) {
+            if (text != null && !text.isBlank() && !livreTexts.contains(text)) {
+                livreTexts.add(text);
+                keys(text).forEach(key -> suggestions.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).merge(text, 1, Integer::sum));
+            }
+        }
+        texts.put(livreId, livreTexts);
+    }
+
+    private void doRemove(String livreId) {
+        List<String> livreTexts = texts.remove(livreId);
+        if (livreTexts == null) {
+            return;
+        }
+        for (String text : livreTexts) {
+            for (String key : keys(text)) {
+                suggestions.computeIfPresent(key, (k, matches) -> {
+                    matches.computeIfPresent(text, (t, count) -> count > 1 ? count - 1 : null);
+                    return matches.isEmpty() ? null : matches;
+                });
+            }
+        }
+    }
+
+    /**
+     * The keys of a text: its normalized form starting at each of its first words.
+     */
+    private static Set<String> keys(String text) {
+        List<String> tokens = SearchText.tokens(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int start = 0; start < Math.min(tokens.size(), MAX_WORD_STARTS); start++) {
+            keys.add(String.join(" ", tokens.subList(start, tokens.size())));
+        }
+        return keys;
+    }
+
+    /**
+     * The normalized form of a typed text, keeping a trailing separator so "le " does not suggest "lecture".
+     */
+    private static String key(String text) {
+        String key = String.join(" ", SearchText.tokens(text));
+        if (!key.isEmpty() && !SearchText.normalize(text).matches(".*[\\p{L}\\p{Nd}]$")) {
+            key += " ";
+        }
+        return key;
+    }
+
+    /**
+     * Rough size in bytes of the index: keys, their entries and the per-livre bookkeeping.
+     * The suggested texts themselves are not counted.
+     */
+    private long estimateSize() {
+        long size = 0;
+        for (Map.Entry<String, Map<String, Integer>> entry : suggestions.entrySet()) {
+            size += 48 + 2L * entry.getKey().length() + 64 + 48L * entry.getValue().size();
+        }
+        return size + 96L * texts.size();
+    }
+}
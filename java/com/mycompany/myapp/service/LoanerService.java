@@ -1,12 +1,17 @@
 package com.mycompany.myapp.service;
 
 import com.mycompany.myapp.domain.Loaner;
+import com.mycompany.myapp.domain.Versioned;
+import com.mycompany.myapp.repository.EntityCache;
+import com.mycompany.myapp.repository.KeysetRepository;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.repository.LoanerRepository;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 /**
@@ -19,8 +24,14 @@ public class LoanerService {
 
     private final LoanerRepository loanerRepository;
 
-    public LoanerService(LoanerRepository loanerRepository) {
+    private final KeysetRepository keysetRepository;
+
+    private final EntityCache entityCache;
+
+    public LoanerService(LoanerRepository loanerRepository, KeysetRepository keysetRepository, EntityCache entityCache) {
         this.loanerRepository = loanerRepository;
+        this.keysetRepository = keysetRepository;
+        this.entityCache = entityCache;
     }
 
     /**
@@ -31,7 +42,12 @@ public class LoanerService {
      */
     public Loaner save(Loaner loaner) {
         log.debug("Request to save Loaner : {}", loaner);
-        return loanerRepository.save(loaner);
+        if (loaner.getId() != null && loaner.getVersion() == null) {
+            entityCache.findVersion(loaner.getId(), Loaner.class).map(Versioned::getVersion).ifPresent(loaner::setVersion);
+        }
+        Loaner result = loanerRepository.save(loaner);
+        entityCache.evict(Loaner.class, result.getId());
+        return result;
     }
 
     /**
@@ -58,10 +74,17 @@ public class LoanerService {
                 if (loaner.getIdNumber() != null) {
                     existingLoaner.setIdNumber(loaner.getIdNumber());
                 }
+                if (loaner.getVersion() != null) {
+                    existingLoaner.setVersion(loaner.getVersion());
+                }
 
                 return existingLoaner;
             })
-            .map(loanerRepository::save);
+            .map(loanerRepository::save)
+            .map(result -> {
+                entityCache.evict(Loaner.class, result.getId());
+                return result;
+            });
     }
 
     /**
@@ -75,6 +98,18 @@ public class LoanerService {
         return loanerRepository.findAll(pageable);
     }
 
+    /**
+     * Get a slice of the loaners, in id order, after the given cursor.
+     *
+     * @param cursor the cursor returned with the previous slice, empty for the first slice.
+     * @param size the size of the slice.
+     * @return the slice of entities.
+     */
+    public KeysetSlice<Loaner> findAll(String cursor, int size) {
+        log.debug("Request to get a slice of Loaners");
+        return keysetRepository.findAll(new Query(), cursor, size, Loaner.class);
+    }
+
     /**
      * Get one loaner by id.
      *
@@ -83,7 +118,17 @@ public class LoanerService {
      */
     public Optional<Loaner> findOne(String id) {
         log.debug("Request to get Loaner : {}", id);
-        return loanerRepository.findById(id);
+        return entityCache.findById(id, Loaner.class);
+    }
+
+    /**
+     * Get the version of one loaner by id, without reading the whole entity.
+     *
+     * @param id the id of the entity.
+     * @return the version of the entity.
+     */
+    public Optional<Versioned> findVersion(String id) {
+        return entityCache.findVersion(id, Loaner.class).map(Versioned.class::cast);
     }
 
     /**
@@ -94,5 +139,6 @@ public class LoanerService {
     public void delete(String id) {
         log.debug("Request to delete Loaner : {}", id);
         loanerRepository.deleteById(id);
+        entityCache.evict(Loaner.class, id);
     }
 }
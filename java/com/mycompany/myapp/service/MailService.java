@@ -1,8 +1,13 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Emprunt;
+import com.mycompany.myapp.domain.Loaner;
 import com.mycompany.myapp.domain.User;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 import org.slf4j.Logger;
@@ -31,6 +36,10 @@ public class MailService {
 
     private static final String BASE_URL = "baseUrl";
 
+    private static final String LOANER = "loaner";
+
+    private static final String EMPRUNTS = "emprunts";
+
     private final JHipsterProperties jHipsterProperties;
 
     private final JavaMailSender javaMailSender;
@@ -109,4 +118,29 @@ public class MailService {
         log.debug("Sending password reset email to '{}'", user.getEmail());
         sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
     }
+
+    /**
+     * Remind a loaner of its overdue emprunts.
+     *
+     * @param loaner the loaner.
+     * @param emprunts the overdue emprunts, with their livre name and end date.
+     * @return a future completed once the email has been handed to the mail server, so that callers can pace their batches.
+     */
+    @Async
+    public CompletableFuture<Void> sendOverdueReminderEmail(Loaner loaner, List<Emprunt> emprunts) {
+        if (loaner.getEmail() == null) {
+            log.debug("Email doesn't exist for loaner '{}'", loaner.getId());
+            return CompletableFuture.completedFuture(null);
+        }
+        log.debug("Sending overdue reminder email to '{}'", loaner.getEmail());
+        Locale locale = Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE);
+        Context context = new Context(locale);
+        context.setVariable(LOANER, loaner);
+        context.setVariable(EMPRUNTS, emprunts);
+        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        String content = templateEngine.process("mail/overdueReminderEmail", context);
+        String subject = messageSource.getMessage("email.overdue.title", null, locale);
+        sendEmail(loaner.getEmail(), subject, content, false, true);
+        return CompletableFuture.completedFuture(null);
+    }
 }
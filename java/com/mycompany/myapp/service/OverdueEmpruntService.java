@@ -0,0 +1,234 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Emprunt;
+import com.mycompany.myapp.domain.Livre;
+import com.mycompany.myapp.domain.Loaner;
+import com.mycompany.myapp.service.util.ObjectIds;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Service reminding loaners of their overdue {@link Emprunt}s.
+ * <p>
+ * The overdue emprunts are read page by page, sorted by loaner, so only the current batch of loaners
+ * is held in memory and no cursor stays open while the reminders are sent. Reminders are handed to the
+ * {@link MailService} one batch at a time: the next batch waits until the previous one has been sent, plus
+ * a pause, so the shared task executor queue never holds more than one batch of reminders.
+ */
+@Service
+public class OverdueEmpruntService {
+
+    public static final String OVERDUE_METER_NAME = "library.emprunts.overdue";
+    public static final String OVERDUE_METER_DESCRIPTION = "Number of emprunts past their end date and not returned, at the last scan.";
+    public static final String OVERDUE_METER_BASE_UNIT = "emprunts";
+
+    private static final int MAX_EMPRUNTS_PER_REMINDER = 100;
+
+    private static final int PAGE_SIZE = 500;
+
+    private static final String LEASE_COLLECTION = "scheduled_lease";
+
+    private static final String LEASE_ID = "overdue-reminders";
+
+    private final Logger log = LoggerFactory.getLogger(OverdueEmpruntService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final MailService mailService;
+
+    private final ApplicationProperties.Overdue properties;
+
+    private final AtomicLong overdueCount = new AtomicLong();
+
+    public OverdueEmpruntService(
+        MongoTemplate mongoTemplate,
+        MailService mailService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.mailService = mailService;
+        this.properties = applicationProperties.getOverdue();
+        Gauge
+            .builder(OVERDUE_METER_NAME, overdueCount, AtomicLong::get)
+            .description(OVERDUE_METER_DESCRIPTION)
+            .baseUnit(OVERDUE_METER_BASE_UNIT)
+            .register(registry);
+    }
+
+    /**
+     * Remind every loaner of its overdue emprunts.
+     * <p>
+     * This is scheduled with the {@code application.overdue.cron} expression, every day at 07:00 (am) by default.
+     * Only the instance that takes the lease scans the emprunts, the others skip this run.
+     */
+    @Scheduled(cron = "${application.overdue.cron:0 0 7 * * ?}")
+    public void remindOverdueEmprunts() {
+        if (!acquireLease()) {
+            log.debug("Overdue Emprunts are scanned by another instance");
+            return;
+        }
+        log.debug("Scanning overdue Emprunts");
+        Criteria overdue = where("returned_at").is(null).and("end").lt(Date.from(Instant.now())).and("loaner").ne(null);
+
+        long count = 0;
+        List<List<Document>> batch = new ArrayList<>(properties.getBatchSize());
+        List<Document> group = null;
+        String groupLoanerId = null;
+        List<Document> page = findPage(overdue, null);
+        while (!page.isEmpty()) {
+            for (Document emprunt : page) {
+                count++;
+                String loanerId = ObjectIds.fromReference(emprunt.get("loaner"));
+                if (group == null || !Objects.equals(loanerId, groupLoanerId)) {
+                    if (group != null) {
+                        batch.add(group);
+                        if (batch.size() >= properties.getBatchSize()) {
+                            remind(batch);
+                            batch.clear();
+                        }
+                    }
+                    group = new ArrayList<>();
+                    groupLoanerId = loanerId;
+                }
+                if (group.size() < MAX_EMPRUNTS_PER_REMINDER) {
+                    group.add(emprunt);
+                }
+            }
+            page = page.size() < PAGE_SIZE ? List.of() : findPage(overdue, page.get(page.size() - 1));
+        }
+        if (group != null) {
+            batch.add(group);
+            remind(batch);
+        }
+        overdueCount.set(count);
+        log.info("Found {} overdue Emprunts", count);
+    }
+
+    /**
+     * Take the lease of the overdue scan for {@code application.overdue.lease}, unless another instance holds it.
+     * <p>
+     * The lease is not released at the end of the scan, so that an instance whose clock is late does not
+     * scan again once the first one is done.
+     */
+    private boolean acquireLease() {
+        Instant now = Instant.now();
+        Query expired = query(where("_id").is(LEASE_ID).and("locked_until").lte(Date.from(now)));
+        Update lease = new Update().set("locked_at", Date.from(now)).set("locked_until", Date.from(now.plus(properties.getLease())));
+        try {
+            mongoTemplate.upsert(expired, lease, LEASE_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Find the next page of overdue emprunts, sorted by loaner then id, so that no cursor is held while the
+     * reminders are sent.
+     */
+    private List<Document> findPage(Criteria overdue, Document after) {
+        Query page = new Query(overdue).with(Sort.by(Sort.Direction.ASC, "loaner", "_id")).limit(PAGE_SIZE);
+        page.fields().include("loaner").include("livre").include("end");
+        if (after != null) {
+            Object loaner = after.get("loaner");
+            Criteria sameLoaner = where("loaner").is(loaner).and("_id").gt(after.get("_id"));
+            page.addCriteria(new Criteria().orOperator(where("loaner").gt(loaner), sameLoaner));
+        }
+        return mongoTemplate.find(page, Document.class, "emprunt");
+    }
+
+    /**
+     * Send the reminders of a batch of loaners, and wait until they are sent.
+     */
+    private void remind(List<List<Document>> batch) {
+        Set<String> loanerIds = new HashSet<>();
+        Set<String> livreIds = new HashSet<>();
+        batch.forEach(group ->
+            group.forEach(emprunt -> {
+                loanerIds.add(ObjectIds.fromReference(emprunt.get("loaner")));
+                livreIds.add(ObjectIds.fromReference(emprunt.get("livre")));
+            })
+        );
+        Map<String, Loaner> loaners = mongoTemplate
+            .find(query(where("id").in(loanerIds)), Loaner.class)
+            .stream()
+            .collect(Collectors.toMap(Loaner::getId, Function.identity()));
+        Query names = query(where("id").in(livreIds));
+        names.fields().include("name");
+        Map<String, Livre> livres = mongoTemplate
+            .find(names, Livre.class)
+            .stream()
+            .collect(Collectors.toMap(Livre::getId, Function.identity()));
+
+        List<CompletableFuture<Void>> reminders = new ArrayList<>(batch.size());
+        for (List<Document> group : batch) {
+            Loaner loaner = loaners.get(ObjectIds.fromReference(group.get(0).get("loaner")));
+            if (loaner == null) {
+                continue;
+            }
+            List<Emprunt> emprunts = group
+                .stream()
+                .map(emprunt ->
+                    new Emprunt()
+                        .id(ObjectIds.fromStored(emprunt.get("_id")))
+                        .end(emprunt.getDate("end").toInstant())
+                        .livre(livres.getOrDefault(ObjectIds.fromReference(emprunt.get("livre")), new Livre()))
+                )
+                .sorted(Comparator.comparing(Emprunt::getEnd))
+                .collect(Collectors.toList());
+            reminders.add(send(loaner, emprunts));
+        }
+        CompletableFuture.allOf(reminders.toArray(new CompletableFuture[0])).join();
+        try {
+            Thread.sleep(properties.getBatchPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send the reminder of a loaner, logging its failure instead of failing the batch.
+     */
+    private CompletableFuture<Void> send(Loaner loaner, List<Emprunt> emprunts) {
+        try {
+            return mailService
+                .sendOverdueReminderEmail(loaner, emprunts)
+                .exceptionally(e -> {
+                    log.warn("Overdue reminder could not be sent to loaner '{}'", loaner.getId(), e);
+                    return null;
+                });
+        } catch (RuntimeException e) {
+            log.warn("Overdue reminder could not be sent to loaner '{}'", loaner.getId(), e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RefreshToken;
+import com.mycompany.myapp.repository.CacheInvalidationBus;
+import com.mycompany.myapp.repository.RefreshTokenRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import tech.jhipster.config.JHipsterProperties;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Service for issuing and exchanging the refresh tokens.
+ * <p>
+ * A refresh token is exchanged once, for a new access token and a new refresh token of the same family, without
+ * checking the password again. Presenting an exchanged token again means that it leaked: all the tokens of its family
+ * are revoked. The tokens are looked up through the {@link RefreshTokenRepository#REFRESH_TOKENS_BY_ID_CACHE} cache.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final Duration validity;
+
+    private final Duration validityForRememberMe;
+
+    public RefreshTokenService(
+        RefreshTokenRepository refreshTokenRepository,
+        MongoTemplate mongoTemplate,
+        CacheInvalidationBus cacheInvalidationBus,
+        TokenRevocationService tokenRevocationService,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.tokenRevocationService = tokenRevocationService;
+        this.validity = applicationProperties.getSecurity().getRefreshTokenValidity();
+        this.validityForRememberMe =
+            Duration.ofSeconds(jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe());
+    }
+
+    /**
+     * Issue a refresh token in a new family, on login.
+     *
+     * @param login the login of the user.
+     * @param rememberMe whether the session is remembered, with a longer validity.
+     * @return the refresh token.
+     */
+    public String create(String login, boolean rememberMe) {
+        Instant expiresAt = Instant.now().plus(rememberMe ? validityForRememberMe : validity);
+        return create(login, rememberMe, UUID.randomUUID().toString(), expiresAt);
+    }
+
+    /**
+     * Issue the refresh token replacing an exchanged one, in the same family and expiring with it: a session refreshed
+     * regularly still ends at the expiry set on login.
+     *
+     * @param exchanged the exchanged refresh token.
+     * @return the new refresh token.
+     */
+    public String create(RefreshToken exchanged) {
+        return create(exchanged.getLogin(), exchanged.isRememberMe(), exchanged.getFamily(), exchanged.getExpiresAt());
+    }
+
+    private String create(String login, boolean rememberMe, String family, Instant expiresAt) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setId(digest(token));
+        refreshToken.setLogin(login);
+        refreshToken.setFamily(family);
+        refreshToken.setRememberMe(rememberMe);
+        refreshToken.setIssuedAt(Instant.now());
+        refreshToken.setExpiresAt(expiresAt);
+        refreshTokenRepository.insert(refreshToken);
+        return token;
+    }
+
+    /**
+     * Exchange a refresh token: the token can not be exchanged again.
+     *
+     * @param token the refresh token.
+     * @return the exchanged token, empty if it is unknown, expired, revoked or already exchanged.
+     */
+    public Optional<RefreshToken> exchange(String token) {
+        String id = digest(token);
+        Optional<RefreshToken> found = refreshTokenRepository.findOneById(id).filter(this::isValid);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken refreshToken = found.get();
+        if (refreshToken.isRotated() || !rotate(id)) {
+            log.warn("Reused refresh token of User: {}, revoking its family", refreshToken.getLogin());
+            revokeFamily(refreshToken.getFamily());
+            return Optional.empty();
+        }
+        cacheInvalidationBus.evict(RefreshTokenRepository.REFRESH_TOKENS_BY_ID_CACHE, List.of(id));
+        return Optional.of(refreshToken);
+    }
+
+    private boolean isValid(RefreshToken refreshToken) {
+        return (
+            refreshToken.getExpiresAt().isAfter(Instant.now()) &&
+            !tokenRevocationService.isRevoked(refreshToken.getLogin(), refreshToken.getIssuedAt().toEpochMilli())
+        );
+    }
+
+    /**
+     * Mark a token as exchanged, unless a concurrent request did it first.
+     */
+    private boolean rotate(String id) {
+        Query notRotated = query(where("id").is(id).and("rotated").is(false));
+        return mongoTemplate.updateFirst(notRotated, Update.update("rotated", true), RefreshToken.class).getModifiedCount() > 0;
+    }
+
+    private void revokeFamily(String family) {
+        List<RefreshToken> refreshTokens = refreshTokenRepository.findAllByFamily(family);
+        refreshTokenRepository.deleteAll(refreshTokens);
+        cacheInvalidationBus.evict(
+            RefreshTokenRepository.REFRESH_TOKENS_BY_ID_CACHE,
+            refreshTokens.stream().map(RefreshToken::getId).collect(Collectors.toList())
+        );
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
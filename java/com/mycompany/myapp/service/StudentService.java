@@ -1,7 +1,11 @@
 package com.mycompany.myapp.service;
 
 import com.mycompany.myapp.domain.Loaner;
+import com.mycompany.myapp.domain.Versioned;
 import com.mycompany.myapp.enums.LoanerType;
+import com.mycompany.myapp.repository.EntityCache;
+import com.mycompany.myapp.repository.KeysetRepository;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.repository.LoanerRepository;
 
 import java.util.Optional;
@@ -11,6 +15,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 /**
  * Service Implementation for managing {@link Student}.
  */
@@ -22,16 +29,27 @@ public class StudentService {
 
     private final LoanerRepository loanerRepository;
 
-    public StudentService( LoanerRepository loanerRepository) {
+    private final KeysetRepository keysetRepository;
+
+    private final EntityCache entityCache;
+
+    public StudentService(LoanerRepository loanerRepository, KeysetRepository keysetRepository, EntityCache entityCache) {
 
         this.loanerRepository = loanerRepository;
+        this.keysetRepository = keysetRepository;
+        this.entityCache = entityCache;
     }
 
 
     public Loaner save(Loaner loaner) {
         log.debug("Request to save loaner : {}", loaner);
         loaner.setLoanerType(LoanerType.STUDENT);
-        return loanerRepository.save(loaner);
+        if (loaner.getId() != null && loaner.getVersion() == null) {
+            entityCache.findVersion(loaner.getId(), Loaner.class).map(Versioned::getVersion).ifPresent(loaner::setVersion);
+        }
+        Loaner result = loanerRepository.save(loaner);
+        entityCache.evict(Loaner.class, result.getId());
+        return result;
     }
 
 
@@ -47,6 +65,18 @@ public class StudentService {
         return loanerRepository.findAllByLoanerType(pageable, LoanerType.STUDENT);
     }
 
+    /**
+     * Get a slice of the students, in id order, after the given cursor.
+     *
+     * @param cursor the cursor returned with the previous slice, empty for the first slice.
+     * @param size the size of the slice.
+     * @return the slice of entities.
+     */
+    public KeysetSlice<Loaner> findAll(String cursor, int size) {
+        log.debug("Request to get a slice of Students");
+        return keysetRepository.findAll(query(where("loanerType").is(LoanerType.STUDENT)), cursor, size, Loaner.class);
+    }
+
     /**
      * Get one student by id.
      *
@@ -55,7 +85,17 @@ public class StudentService {
      */
     public Optional<Loaner> findOne(String id) {
         log.debug("Request to get Student : {}", id);
-        return loanerRepository.findById(id);
+        return entityCache.findById(id, Loaner.class);
+    }
+
+    /**
+     * Get the version of one student by id, without reading the whole entity.
+     *
+     * @param id the id of the entity.
+     * @return the version of the entity.
+     */
+    public Optional<Versioned> findVersion(String id) {
+        return entityCache.findVersion(id, Loaner.class).map(Versioned.class::cast);
     }
 
     /**
@@ -66,5 +106,6 @@ public class StudentService {
     public void delete(String id) {
         log.debug("Request to delete Student : {}", id);
         loanerRepository.deleteById(id);
+        entityCache.evict(Loaner.class, id);
     }
 }
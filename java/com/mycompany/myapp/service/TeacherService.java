@@ -1,7 +1,11 @@
 package com.mycompany.myapp.service;
 
 import com.mycompany.myapp.domain.Loaner;
+import com.mycompany.myapp.domain.Versioned;
 import com.mycompany.myapp.enums.LoanerType;
+import com.mycompany.myapp.repository.EntityCache;
+import com.mycompany.myapp.repository.KeysetRepository;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.repository.LoanerRepository;
 
 import java.util.Optional;
@@ -11,6 +15,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 
 @Service
 public class TeacherService {
@@ -20,9 +27,15 @@ public class TeacherService {
 
     private final LoanerRepository loanerRepository;
 
-    public TeacherService( LoanerRepository loanerRepository) {
+    private final KeysetRepository keysetRepository;
+
+    private final EntityCache entityCache;
+
+    public TeacherService(LoanerRepository loanerRepository, KeysetRepository keysetRepository, EntityCache entityCache) {
 
         this.loanerRepository = loanerRepository;
+        this.keysetRepository = keysetRepository;
+        this.entityCache = entityCache;
     }
 
 
@@ -30,7 +43,12 @@ public class TeacherService {
     public Loaner save(Loaner loaner) {
         log.debug("Request to save loaner : {}", loaner);
         loaner.setLoanerType(LoanerType.TEACHER);
-        return loanerRepository.save(loaner);
+        if (loaner.getId() != null && loaner.getVersion() == null) {
+            entityCache.findVersion(loaner.getId(), Loaner.class).map(Versioned::getVersion).ifPresent(loaner::setVersion);
+        }
+        Loaner result = loanerRepository.save(loaner);
+        entityCache.evict(Loaner.class, result.getId());
+        return result;
     }
 
 
@@ -46,6 +64,18 @@ public class TeacherService {
         return loanerRepository.findAllByLoanerType(pageable, LoanerType.TEACHER);
     }
 
+    /**
+     * Get a slice of the teachers, in id order, after the given cursor.
+     *
+     * @param cursor the cursor returned with the previous slice, empty for the first slice.
+     * @param size the size of the slice.
+     * @return the slice of entities.
+     */
+    public KeysetSlice<Loaner> findAll(String cursor, int size) {
+        log.debug("Request to get a slice of Teachers");
+        return keysetRepository.findAll(query(where("loanerType").is(LoanerType.TEACHER)), cursor, size, Loaner.class);
+    }
+
     /**
      * Get one teacher by id.
      *
@@ -54,7 +84,17 @@ public class TeacherService {
      */
     public Optional<Loaner> findOne(String id) {
         log.debug("Request to get Teacher : {}", id);
-        return loanerRepository.findById(id);
+        return entityCache.findById(id, Loaner.class);
+    }
+
+    /**
+     * Get the version of one teacher by id, without reading the whole entity.
+     *
+     * @param id the id of the entity.
+     * @return the version of the entity.
+     */
+    public Optional<Versioned> findVersion(String id) {
+        return entityCache.findVersion(id, Loaner.class).map(Versioned.class::cast);
     }
 
     /**
@@ -65,5 +105,6 @@ public class TeacherService {
     public void delete(String id) {
         log.debug("Request to delete Teacher : {}", id);
         loanerRepository.deleteById(id);
+        entityCache.evict(Loaner.class, id);
     }
 }
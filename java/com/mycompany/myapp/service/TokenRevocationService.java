@@ -0,0 +1,158 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.TokenRevocation;
+import com.mycompany.myapp.repository.CacheInvalidationBus;
+import com.mycompany.myapp.repository.CacheInvalidationListener;
+import com.mycompany.myapp.repository.TokenRevocationRepository;
+import com.mycompany.myapp.service.util.BloomFilter;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service for revoking the tokens of a user, when the password changes or the user is deleted.
+ * <p>
+ * The revocations are stored in MongoDB, which deletes them once the tokens they revoke have expired, and mirrored in
+ * memory on every node. A Bloom filter of the revoked logins sits in front of the mirror, so the tokens of the users
+ * without revocation, nearly all of them, are accepted after a few hashes. The mirror and its filter are rebuilt at
+ * startup and every hour, which drops the expired revocations, and the other nodes are notified of new revocations
+ * by the {@link CacheInvalidationBus}.
+ */
+@Service
+public class TokenRevocationService implements CacheInvalidationListener, InitializingBean {
+
+    public static final String TOKEN_REVOCATIONS = "tokenRevocations";
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final Duration maxTokenValidity;
+
+    private volatile Map<String, Instant> revocations = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter revokedLogins = new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+
+    public TokenRevocationService(
+        TokenRevocationRepository tokenRevocationRepository,
+        CacheInvalidationBus cacheInvalidationBus,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        // the refresh tokens are revoked too, and outlive the access tokens
+        this.maxTokenValidity =
+            Collections.max(
+                List.of(
+                    Duration.ofSeconds(jwt.getTokenValidityInSeconds()),
+                    Duration.ofSeconds(jwt.getTokenValidityInSecondsForRememberMe()),
+                    applicationProperties.getSecurity().getRefreshTokenValidity()
+                )
+            );
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        load();
+    }
+
+    /**
+     * (Re)load the revocations that have not expired, and rebuild the filter.
+     * <p>
+     * This is scheduled to get fired every hour.
+     */
+    @Scheduled(cron = "0 0 * * * ?")
+    public synchronized void load() {
+        Map<String, Instant> loaded = new ConcurrentHashMap<>();
+        tokenRevocationRepository
+            .findAllByExpiresAtAfter(Instant.now())
+            .forEach(revocation -> loaded.put(revocation.getLogin(), revocation.getRevokedBefore()));
+        rebuild(loaded);
+        log.info("Loaded {} token revocations", loaded.size());
+    }
+
+    /**
+     * Revoke all the tokens issued to a user so far, on every node.
+     *
+     * @param login the login of the user.
+     */
+    public void revoke(String login) {
+        // as stored by MongoDB, so that every node compares with the same instant
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        tokenRevocationRepository.save(new TokenRevocation(login, now, now.plus(maxTokenValidity)));
+        put(login, now);
+        cacheInvalidationBus.broadcast(TOKEN_REVOCATIONS, List.of(login));
+        log.debug("Revoked the tokens of User: {}", login);
+    }
+
+    /**
+     * Check whether a token is revoked, that is issued before the last revocation of its user. The comparison is made
+     * to the millisecond, so that the tokens issued right after a revocation, by the login that follows a password
+     * change, are accepted.
+     *
+     * @param login the login the token was issued to.
+     * @param issuedAt the time the token was issued, in milliseconds since the epoch, {@code 0} if unknown.
+     * @return whether the token is revoked.
+     */
+    public boolean isRevoked(String login, long issuedAt) {
+        if (!revokedLogins.mightContain(login)) {
+            return false;
+        }
+        Instant revokedBefore = revocations.get(login);
+        return revokedBefore != null && issuedAt < revokedBefore.toEpochMilli();
+    }
+
+    @Override
+    public String getCacheName() {
+        return TOKEN_REVOCATIONS;
+    }
+
+    /**
+     * Mirror the revocations made on another node.
+     *
+     * @param logins the logins whose tokens were revoked, or {@code null} to reload all the revocations.
+     */
+    @Override
+    public void onInvalidation(Collection<String> logins) {
+        if (logins == null) {
+            load();
+            return;
+        }
+        tokenRevocationRepository.findAllById(logins).forEach(revocation -> put(revocation.getLogin(), revocation.getRevokedBefore()));
+    }
+
+    private synchronized void put(String login, Instant revokedBefore) {
+        revocations.merge(login, revokedBefore, (current, revoked) -> current.isAfter(revoked) ? current : revoked);
+        revokedLogins.put(login);
+        if (revocations.size() > revokedLogins.getExpectedInsertions()) {
+            rebuild(revocations);
+        }
+    }
+
+    private synchronized void rebuild(Map<String, Instant> mirror) {
+        BloomFilter filter = new BloomFilter(Math.max(MIN_CAPACITY, 2 * mirror.size()), FALSE_POSITIVE_RATE);
+        mirror.keySet().forEach(filter::put);
+        revokedLogins = filter;
+        revocations = mirror;
+    }
+}
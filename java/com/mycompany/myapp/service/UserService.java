@@ -4,6 +4,7 @@ import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.CacheInvalidationBus;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.security.SecurityUtils;
@@ -15,7 +16,6 @@ import java.util.*;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -37,18 +37,22 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    private final CacheManager cacheManager;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final TokenRevocationService tokenRevocationService;
 
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheInvalidationBus cacheInvalidationBus,
+        TokenRevocationService tokenRevocationService
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
-        this.cacheManager = cacheManager;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -77,6 +81,7 @@ public class UserService {
                 user.setResetDate(null);
                 userRepository.save(user);
                 this.clearUserCaches(user);
+                tokenRevocationService.revoke(user.getLogin());
                 return user;
             });
     }
@@ -193,6 +198,8 @@ public class UserService {
             .map(Optional::get)
             .map(user -> {
                 this.clearUserCaches(user);
+                String previousLogin = user.getLogin();
+                Set<Authority> previousAuthorities = new HashSet<>(user.getAuthorities());
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -213,6 +220,10 @@ public class UserService {
                     .forEach(managedAuthorities::add);
                 userRepository.save(user);
                 this.clearUserCaches(user);
+                if (!user.getLogin().equals(previousLogin) || !user.isActivated() || !managedAuthorities.equals(previousAuthorities)) {
+                    // the tokens carry the login and the authorities
+                    tokenRevocationService.revoke(previousLogin);
+                }
                 log.debug("Changed Information for User: {}", user);
                 return user;
             })
@@ -225,6 +236,7 @@ public class UserService {
             .ifPresent(user -> {
                 userRepository.delete(user);
                 this.clearUserCaches(user);
+                tokenRevocationService.revoke(user.getLogin());
                 log.debug("Deleted User: {}", user);
             });
     }
@@ -269,6 +281,7 @@ public class UserService {
                 user.setPassword(encryptedPassword);
                 userRepository.save(user);
                 this.clearUserCaches(user);
+                tokenRevocationService.revoke(user.getLogin());
                 log.debug("Changed password for User: {}", user);
             });
     }
@@ -314,9 +327,9 @@ public class UserService {
     }
 
     private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        cacheInvalidationBus.evict(UserRepository.USERS_BY_LOGIN_CACHE, List.of(user.getLogin()));
         if (user.getEmail() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+            cacheInvalidationBus.evict(UserRepository.USERS_BY_EMAIL_CACHE, List.of(user.getEmail()));
         }
     }
 }
@@ -0,0 +1,57 @@
+package com.mycompany.myapp.service.dto;
+
+/**
+ * A DTO representing the number of livres of a category, and how many of them are available.
+ */
+public class CategoryFacetDTO {
+
+    private String categoryId;
+
+    private long total;
+
+    private long available;
+
+    public CategoryFacetDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CategoryFacetDTO(String categoryId, long total, long available) {
+        this.categoryId = categoryId;
+        this.total = total;
+        this.available = available;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(String categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(long available) {
+        this.available = available;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CategoryFacetDTO{" +
+            "categoryId='" + categoryId + '\'' +
+            ", total=" + total +
+            ", available=" + available +
+            "}";
+    }
+}
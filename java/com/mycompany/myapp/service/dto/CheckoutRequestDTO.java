@@ -0,0 +1,64 @@
+package com.mycompany.myapp.service.dto;
+
+import java.time.Instant;
+
+/**
+ * A DTO representing one checkout of a batch: a livre lent to a loaner.
+ */
+public class CheckoutRequestDTO {
+
+    private String loanerId;
+
+    private String livreId;
+
+    private Instant start;
+
+    private Instant end;
+
+    public CheckoutRequestDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public String getLoanerId() {
+        return loanerId;
+    }
+
+    public void setLoanerId(String loanerId) {
+        this.loanerId = loanerId;
+    }
+
+    public String getLivreId() {
+        return livreId;
+    }
+
+    public void setLivreId(String livreId) {
+        this.livreId = livreId;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public void setStart(Instant start) {
+        this.start = start;
+    }
+
+    public Instant getEnd() {
+        return end;
+    }
+
+    public void setEnd(Instant end) {
+        this.end = end;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CheckoutRequestDTO{" +
+            "loanerId='" + loanerId + '\'' +
+            ", livreId='" + livreId + '\'' +
+            ", start='" + start + '\'' +
+            ", end='" + end + '\'' +
+            "}";
+    }
+}
@@ -0,0 +1,70 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.enums.CheckoutStatus;
+
+/**
+ * A DTO representing the outcome of one checkout of a batch.
+ */
+public class CheckoutResultDTO {
+
+    private String loanerId;
+
+    private String livreId;
+
+    private String empruntId;
+
+    private CheckoutStatus status;
+
+    public CheckoutResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CheckoutResultDTO(CheckoutRequestDTO request, CheckoutStatus status) {
+        this.loanerId = request.getLoanerId();
+        this.livreId = request.getLivreId();
+        this.status = status;
+    }
+
+    public String getLoanerId() {
+        return loanerId;
+    }
+
+    public void setLoanerId(String loanerId) {
+        this.loanerId = loanerId;
+    }
+
+    public String getLivreId() {
+        return livreId;
+    }
+
+    public void setLivreId(String livreId) {
+        this.livreId = livreId;
+    }
+
+    public String getEmpruntId() {
+        return empruntId;
+    }
+
+    public void setEmpruntId(String empruntId) {
+        this.empruntId = empruntId;
+    }
+
+    public CheckoutStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CheckoutStatus status) {
+        this.status = status;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CheckoutResultDTO{" +
+            "loanerId='" + loanerId + '\'' +
+            ", livreId='" + livreId + '\'' +
+            ", empruntId='" + empruntId + '\'' +
+            ", status='" + status + '\'' +
+            "}";
+    }
+}
@@ -0,0 +1,103 @@
+package com.mycompany.myapp.service.dto;
+
+import java.time.Instant;
+
+/**
+ * A DTO representing an {@link com.mycompany.myapp.domain.Emprunt} in listings: its loaner and livre are
+ * flattened to their ids and names.
+ */
+public class EmpruntSummaryDTO {
+
+    private String id;
+
+    private Instant start;
+
+    private Instant end;
+
+    private Instant returnedAt;
+
+    private String loanerId;
+
+    private String loanerName;
+
+    private String livreId;
+
+    private String livreName;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public void setStart(Instant start) {
+        this.start = start;
+    }
+
+    public Instant getEnd() {
+        return end;
+    }
+
+    public void setEnd(Instant end) {
+        this.end = end;
+    }
+
+    public Instant getReturnedAt() {
+        return returnedAt;
+    }
+
+    public void setReturnedAt(Instant returnedAt) {
+        this.returnedAt = returnedAt;
+    }
+
+    public String getLoanerId() {
+        return loanerId;
+    }
+
+    public void setLoanerId(String loanerId) {
+        this.loanerId = loanerId;
+    }
+
+    public String getLoanerName() {
+        return loanerName;
+    }
+
+    public void setLoanerName(String loanerName) {
+        this.loanerName = loanerName;
+    }
+
+    public String getLivreId() {
+        return livreId;
+    }
+
+    public void setLivreId(String livreId) {
+        this.livreId = livreId;
+    }
+
+    public String getLivreName() {
+        return livreName;
+    }
+
+    public void setLivreName(String livreName) {
+        this.livreName = livreName;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "EmpruntSummaryDTO{" +
+            "id='" + id + '\'' +
+            ", start='" + start + '\'' +
+            ", end='" + end + '\'' +
+            ", returnedAt='" + returnedAt + '\'' +
+            ", loanerId='" + loanerId + '\'' +
+            ", livreId='" + livreId + '\'' +
+            "}";
+    }
+}
@@ -0,0 +1,45 @@
+package com.mycompany.myapp.service.dto;
+
+/**
+ * A DTO representing a row of an import that could not be imported.
+ */
+public class ImportErrorDTO {
+
+    private long line;
+
+    private String message;
+
+    public ImportErrorDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ImportErrorDTO(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportErrorDTO{" +
+            "line=" + line +
+            ", message='" + message + '\'' +
+            "}";
+    }
+}
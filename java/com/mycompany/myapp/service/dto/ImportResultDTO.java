@@ -0,0 +1,73 @@
+package com.mycompany.myapp.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of an import: the number of rows read, created, skipped as duplicates or
+ * in error, and the first errors.
+ */
+public class ImportResultDTO {
+
+    private long read;
+
+    private long created;
+
+    private long duplicates;
+
+    private long failed;
+
+    private List<ImportErrorDTO> errors = new ArrayList<>();
+
+    public long getRead() {
+        return read;
+    }
+
+    public void setRead(long read) {
+        this.read = read;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<ImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportResultDTO{" +
+            "read=" + read +
+            ", created=" + created +
+            ", duplicates=" + duplicates +
+            ", failed=" + failed +
+            ", errors=" + errors +
+            "}";
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.myapp.service.dto;
+
+/**
+ * A DTO representing a {@link com.mycompany.myapp.domain.Livre} in listings: its category is flattened to its
+ * id and name, and its emprunt to whether it is available.
+ */
+public class LivreSummaryDTO {
+
+    private String id;
+
+    private String name;
+
+    private String author;
+
+    private String categoryId;
+
+    private String categoryName;
+
+    private boolean available;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(String categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LivreSummaryDTO{" +
+            "id='" + id + '\'' +
+            ", name='" + name + '\'' +
+            ", author='" + author + '\'' +
+            ", categoryId='" + categoryId + '\'' +
+            ", categoryName='" + categoryName + '\'' +
+            ", available=" + available +
+            "}";
+    }
+}
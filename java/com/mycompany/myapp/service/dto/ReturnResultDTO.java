@@ -0,0 +1,59 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.enums.ReturnStatus;
+
+/**
+ * A DTO representing the outcome of the return of one livre.
+ */
+public class ReturnResultDTO {
+
+    private String livreId;
+
+    private String empruntId;
+
+    private ReturnStatus status;
+
+    public ReturnResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ReturnResultDTO(String livreId, String empruntId, ReturnStatus status) {
+        this.livreId = livreId;
+        this.empruntId = empruntId;
+        this.status = status;
+    }
+
+    public String getLivreId() {
+        return livreId;
+    }
+
+    public void setLivreId(String livreId) {
+        this.livreId = livreId;
+    }
+
+    public String getEmpruntId() {
+        return empruntId;
+    }
+
+    public void setEmpruntId(String empruntId) {
+        this.empruntId = empruntId;
+    }
+
+    public ReturnStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReturnStatus status) {
+        this.status = status;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReturnResultDTO{" +
+            "livreId='" + livreId + '\'' +
+            ", empruntId='" + empruntId + '\'' +
+            ", status='" + status + '\'' +
+            "}";
+    }
+}
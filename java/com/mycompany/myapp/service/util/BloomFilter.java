@@ -0,0 +1,81 @@
+package com.mycompany.myapp.service.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter of strings: {@link #mightContain(String)} has no false negatives, and false positives at the
+ * configured rate as long as no more than the expected number of strings were added.
+ * <p>
+ * Strings are hashed once, with 64-bit FNV-1a over their chars, and the bit indexes derived by double hashing.
+ * Adding is thread-safe and lock-free; strings cannot be removed, the filter is rebuilt instead.
+ */
+public final class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private final int expectedInsertions;
+
+    /**
+     * @param expectedInsertions the number of strings expected.
+     * @param falsePositiveRate the rate of false positives once the expected number of strings were added.
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        this.expectedInsertions = Math.max(1, expectedInsertions);
+        long optimalBits = (long) Math.ceil(-this.expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        this.bitCount = 64L * bits.length();
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / this.expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * @return the number of strings this filter was sized for.
+     */
+    public int getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
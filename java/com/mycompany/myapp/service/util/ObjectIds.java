@@ -0,0 +1,49 @@
+package com.mycompany.myapp.service.util;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * Conversions between the {@code String} ids of the entities and the ids stored in MongoDB, for queries
+ * that bypass the entity mapping.
+ * <p>
+ * Spring Data stores a {@code String} id as an {@link ObjectId} whenever it is a valid one.
+ */
+public final class ObjectIds {
+
+    private ObjectIds() {}
+
+    /**
+     * @param id the id of an entity.
+     * @return the id as stored in MongoDB.
+     */
+    public static Object toStored(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    /**
+     * @param id an id as stored in MongoDB.
+     * @return the id of the entity.
+     */
+    public static String fromStored(Object id) {
+        if (id == null) {
+            return null;
+        }
+        return id instanceof ObjectId ? ((ObjectId) id).toHexString() : id.toString();
+    }
+
+    /**
+     * @param ref a stored reference, either decoded as a {@link DBRef} or as a raw {@link Document}.
+     * @return the id of the referenced entity, or {@code null} if there is no reference.
+     */
+    public static String fromReference(Object ref) {
+        if (ref instanceof DBRef) {
+            return fromStored(((DBRef) ref).getId());
+        }
+        if (ref instanceof Document) {
+            return fromStored(((Document) ref).get("$id"));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.mycompany.myapp.service.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalization of free text for case and accent insensitive searches.
+ * <p>
+ * Text is lower-cased, accents are folded ("Élève" becomes "eleve") and everything that is not a
+ * letter or a digit separates keywords.
+ */
+public final class SearchText {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private SearchText() {}
+
+    /**
+     * Lower-case and fold the accents of the given text.
+     *
+     * @param text the text, may be {@code null}.
+     * @return the normalized text, never {@code null}.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Split the given text into distinct normalized keywords, in order of appearance.
+     *
+     * @param text the text, may be {@code null}.
+     * @return the keywords.
+     */
+    public static List<String> keywords(String text) {
+        Set<String> keywords = new LinkedHashSet<>(tokens(text));
+        return new ArrayList<>(keywords);
+    }
+
+    /**
+     * Split the given text into normalized keywords, in order of appearance, repeated keywords included.
+     *
+     * @param text the text, may be {@code null}.
+     * @return the keywords.
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Utilities shared by the services.
+ */
+package com.mycompany.myapp.service.util;
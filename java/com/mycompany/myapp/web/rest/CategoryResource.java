@@ -2,8 +2,13 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Category;
 import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.KeysetSlice;
+import com.mycompany.myapp.service.CategoryFacetService;
 import com.mycompany.myapp.service.CategoryService;
+import com.mycompany.myapp.service.dto.CategoryFacetDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.VersionedResponseUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -18,6 +23,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -41,9 +47,16 @@ public class CategoryResource {
 
     private final CategoryRepository categoryRepository;
 
-    public CategoryResource(CategoryService categoryService, CategoryRepository categoryRepository) {
+    private final CategoryFacetService categoryFacetService;
+
+    public CategoryResource(
+        CategoryService categoryService,
+        CategoryRepository categoryRepository,
+        CategoryFacetService categoryFacetService
+    ) {
         this.categoryService = categoryService;
         this.categoryRepository = categoryRepository;
+        this.categoryFacetService = categoryFacetService;
     }
 
     /**
@@ -140,27 +153,58 @@ public class CategoryResource {
      * {@code GET  /categories} : get all the categories.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the slice to read in keyset mode, empty for the first slice: the categories are then
+     * read in id order, without total count, and the next slice is linked from the headers.
+     * @param request the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} or
+     * {@code If-Modified-Since} header is current for the page.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body.
      */
     @GetMapping("/categories")
-    public ResponseEntity<List<Category>> getAllCategories(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Category>> getAllCategories(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        WebRequest request
+    ) {
         log.debug("REST request to get a page of Categories");
+        if (cursor != null) {
+            KeysetSlice<Category> slice = categoryService.findAll(cursor, pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Category> page = categoryService.findAll(pageable);
+        if (VersionedResponseUtil.checkNotModified(request, page.getContent(), page.getTotalElements())) {
+            return null;
+        }
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /categories/facets} : get the number of livres of each category, total and available.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of facets in body.
+     */
+    @GetMapping("/categories/facets")
+    public ResponseEntity<List<CategoryFacetDTO>> getCategoryFacets() {
+        log.debug("REST request to get the Category facets");
+        return ResponseEntity.ok().body(categoryFacetService.findAll());
+    }
+
     /**
      * {@code GET  /categories/:id} : get the "id" category.
      *
      * @param id the id of the category to retrieve.
+     * @param request the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} or {@code If-Modified-Since} header is current.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/categories/{id}")
-    public ResponseEntity<Category> getCategory(@PathVariable String id) {
+    public ResponseEntity<Category> getCategory(@PathVariable String id, WebRequest request) {
         log.debug("REST request to get Category : {}", id);
+        if (VersionedResponseUtil.checkNotModified(request, categoryService.findVersion(id))) {
+            return null;
+        }
         Optional<Category> category = categoryService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(category);
+        return VersionedResponseUtil.wrapOrNotFound(category);
     }
 
     /**
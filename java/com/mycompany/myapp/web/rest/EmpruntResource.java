@@ -1,9 +1,19 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Emprunt;
+import com.mycompany.myapp.domain.Versioned;
+import com.mycompany.myapp.enums.FileFormat;
 import com.mycompany.myapp.repository.EmpruntRepository;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.service.EmpruntService;
+import com.mycompany.myapp.service.ExportService;
+import com.mycompany.myapp.service.dto.CheckoutRequestDTO;
+import com.mycompany.myapp.service.dto.CheckoutResultDTO;
+import com.mycompany.myapp.service.dto.EmpruntSummaryDTO;
+import com.mycompany.myapp.service.dto.ReturnResultDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.VersionedResponseUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -16,8 +26,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -34,6 +47,8 @@ public class EmpruntResource {
 
     private static final String ENTITY_NAME = "emprunt";
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -41,9 +56,12 @@ public class EmpruntResource {
 
     private final EmpruntRepository empruntRepository;
 
-    public EmpruntResource(EmpruntService empruntService, EmpruntRepository empruntRepository) {
+    private final ExportService exportService;
+
+    public EmpruntResource(EmpruntService empruntService, EmpruntRepository empruntRepository, ExportService exportService) {
         this.empruntService = empruntService;
         this.empruntRepository = empruntRepository;
+        this.exportService = exportService;
     }
 
     /**
@@ -66,6 +84,38 @@ public class EmpruntResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /emprunts/batch} : Check a batch of livres out.
+     *
+     * @param requests the checkouts to perform, at most {@value #MAX_BATCH_SIZE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each checkout,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @PostMapping("/emprunts/batch")
+    public ResponseEntity<List<CheckoutResultDTO>> createEmprunts(@RequestBody List<CheckoutRequestDTO> requests) {
+        log.debug("REST request to save a batch of {} Emprunts", requests.size());
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestAlertException("A batch cannot hold more than " + MAX_BATCH_SIZE + " emprunts", ENTITY_NAME, "batchtoolarge");
+        }
+        return ResponseEntity.ok().body(empruntService.checkoutAll(requests));
+    }
+
+    /**
+     * {@code POST  /emprunts/returns} : Return a batch of livres, closing their emprunts.
+     *
+     * @param livreIds the ids of the returned livres, at most {@value #MAX_BATCH_SIZE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each return,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @PostMapping("/emprunts/returns")
+    public ResponseEntity<List<ReturnResultDTO>> returnLivres(@RequestBody List<String> livreIds) {
+        log.debug("REST request to return a batch of {} Livres", livreIds.size());
+        if (livreIds.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestAlertException("A batch cannot hold more than " + MAX_BATCH_SIZE + " livres", ENTITY_NAME, "batchtoolarge");
+        }
+        return ResponseEntity.ok().body(empruntService.returnAll(livreIds));
+    }
+
     /**
      * {@code PUT  /emprunts/:id} : Updates an existing emprunt.
      *
@@ -140,27 +190,75 @@ public class EmpruntResource {
      * {@code GET  /emprunts} : get all the emprunts.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the slice to read in keyset mode, empty for the first slice: the emprunts are then
+     * read in id order, without total count, and the next slice is linked from the headers.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of emprunts in body.
      */
     @GetMapping("/emprunts")
-    public ResponseEntity<List<Emprunt>> getAllEmprunts(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Emprunt>> getAllEmprunts(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "cursor", required = false) String cursor
+    ) {
         log.debug("REST request to get a page of Emprunts");
+        if (cursor != null) {
+            KeysetSlice<Emprunt> slice = empruntService.findAll(cursor, pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Emprunt> page = empruntService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /emprunts/summary} : get the summaries of all the emprunts, for listings.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of summaries in body.
+     */
+    @GetMapping("/emprunts/summary")
+    public ResponseEntity<List<EmpruntSummaryDTO>> getAllEmpruntSummaries(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Emprunt summaries");
+        Page<EmpruntSummaryDTO> page = empruntService.findAllSummaries(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /emprunts/export} : export all the emprunts, streamed as they are read.
+     *
+     * @param format the format of the export, {@code ndjson} or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the export in body, or with status {@code 400 (Bad Request)} if the format is unknown.
+     */
+    @GetMapping("/emprunts/export")
+    public ResponseEntity<StreamingResponseBody> exportEmprunts(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export Emprunts as {}", format);
+        FileFormat fileFormat = FileFormat
+            .fromExtension(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown export format", ENTITY_NAME, "exportformat"));
+        return ResponseEntity
+            .ok()
+            .contentType(MediaType.parseMediaType(fileFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"emprunts." + fileFormat.getExtension() + "\"")
+            .body(out -> exportService.exportEmprunts(fileFormat, out));
+    }
+
     /**
      * {@code GET  /emprunts/:id} : get the "id" emprunt.
      *
      * @param id the id of the emprunt to retrieve.
+     * @param request the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} or {@code If-Modified-Since} header is current.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the emprunt, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/emprunts/{id}")
-    public ResponseEntity<Emprunt> getEmprunt(@PathVariable String id) {
+    public ResponseEntity<Emprunt> getEmprunt(@PathVariable String id, WebRequest request) {
         log.debug("REST request to get Emprunt : {}", id);
+        Optional<Versioned> version = empruntService.findVersion(id);
+        if (VersionedResponseUtil.checkNotModified(request, version)) {
+            return null;
+        }
         Optional<Emprunt> emprunt = empruntService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(emprunt);
+        return VersionedResponseUtil.wrapOrNotFound(emprunt, version);
     }
 
     /**
@@ -175,10 +273,22 @@ public class EmpruntResource {
         empruntService.delete(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
+
+    /**
+     * {@code GET  /emprunts-by-criteria/:livre} : search the emprunts by livre name.
+     *
+     * @param livre the searched livre name, matched keyword by keyword ignoring case and accents.
+     * @param pageable the pagination information, most recent emprunts first by default.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of emprunts in body.
+     */
     @GetMapping("/emprunts-by-criteria/{livre}")
-    public ResponseEntity<List<Emprunt>> getAllEmprunts(@PathVariable String livre) {
-        log.debug("REST request to get a list of Emprunts by criteria");
-        List<Emprunt> page = empruntService.findAllByCriteria(livre);
-        return ResponseEntity.ok().body(page);
+    public ResponseEntity<List<Emprunt>> getAllEmprunts(
+        @PathVariable String livre,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of Emprunts by criteria : {}", livre);
+        Page<Emprunt> page = empruntService.findAllByCriteria(livre, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 }
@@ -1,9 +1,20 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Livre;
+import com.mycompany.myapp.domain.Versioned;
+import com.mycompany.myapp.enums.FileFormat;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.repository.LivreRepository;
+import com.mycompany.myapp.service.ExportService;
+import com.mycompany.myapp.service.LivreImportService;
 import com.mycompany.myapp.service.LivreService;
+import com.mycompany.myapp.service.dto.ImportResultDTO;
+import com.mycompany.myapp.service.dto.LivreSummaryDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.VersionedResponseUtil;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -16,8 +27,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -34,6 +48,8 @@ public class LivreResource {
 
     private static final String ENTITY_NAME = "livre";
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -41,9 +57,20 @@ public class LivreResource {
 
     private final LivreRepository livreRepository;
 
-    public LivreResource(LivreService livreService, LivreRepository livreRepository) {
+    private final ExportService exportService;
+
+    private final LivreImportService livreImportService;
+
+    public LivreResource(
+        LivreService livreService,
+        LivreRepository livreRepository,
+        ExportService exportService,
+        LivreImportService livreImportService
+    ) {
         this.livreService = livreService;
         this.livreRepository = livreRepository;
+        this.exportService = exportService;
+        this.livreImportService = livreImportService;
     }
 
     /**
@@ -67,6 +94,24 @@ public class LivreResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /livres/import} : import livres in bulk, skipping those that already exist with the same name and author.
+     *
+     * @param format the format of the body, {@code csv} or {@code ndjson}.
+     * @param body the rows to import, read as they arrive.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of the import, or with status {@code 400 (Bad Request)} if the format is unknown or the CSV header has no name column.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping("/livres/import")
+    public ResponseEntity<ImportResultDTO> importLivres(@RequestParam(value = "format", defaultValue = "csv") String format, InputStream body)
+        throws IOException {
+        log.debug("REST request to import Livres from {}", format);
+        FileFormat fileFormat = FileFormat
+            .fromExtension(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown import format", ENTITY_NAME, "importformat"));
+        return ResponseEntity.ok().body(livreImportService.importLivres(fileFormat, body));
+    }
+
     /**
      * {@code PUT  /livres/:id} : Updates an existing livre.
      *
@@ -136,27 +181,109 @@ public class LivreResource {
      * {@code GET  /livres} : get all the livres.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the slice to read in keyset mode, empty for the first slice: the livres are then
+     * read in id order, without total count, and the next slice is linked from the headers.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of livres in body.
      */
     @GetMapping("/livres")
-    public ResponseEntity<List<Livre>> getAllLivres(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Livre>> getAllLivres(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "cursor", required = false) String cursor
+    ) {
         log.debug("REST request to get a page of Livres");
+        if (cursor != null) {
+            KeysetSlice<Livre> slice = livreService.findAll(cursor, pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Livre> page = livreService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /livres/search?q=:text} : search the livres by name and author, best matches first.
+     *
+     * @param text the searched text.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of livres in body.
+     */
+    @GetMapping("/livres/search")
+    public ResponseEntity<List<Livre>> searchLivres(
+        @RequestParam("q") String text,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search a page of Livres : {}", text);
+        Page<Livre> page = livreService.search(text, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /livres/suggest?q=:text} : suggest livre names and authors for a type-ahead.
+     *
+     * @param text the text typed so far.
+     * @param limit the maximum number of suggestions, at most {@value #MAX_SUGGESTIONS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of suggestions in body.
+     */
+    @GetMapping("/livres/suggest")
+    public ResponseEntity<List<String>> suggestLivres(
+        @RequestParam("q") String text,
+        @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        log.debug("REST request to suggest Livres : {}", text);
+        return ResponseEntity.ok().body(livreService.suggest(text, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    /**
+     * {@code GET  /livres/summary} : get the summaries of all the livres, for listings.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of summaries in body.
+     */
+    @GetMapping("/livres/summary")
+    public ResponseEntity<List<LivreSummaryDTO>> getAllLivreSummaries(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of Livre summaries");
+        Page<LivreSummaryDTO> page = livreService.findAllSummaries(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /livres/export} : export all the livres, streamed as they are read.
+     *
+     * @param format the format of the export, {@code ndjson} or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the export in body, or with status {@code 400 (Bad Request)} if the format is unknown.
+     */
+    @GetMapping("/livres/export")
+    public ResponseEntity<StreamingResponseBody> exportLivres(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export Livres as {}", format);
+        FileFormat fileFormat = FileFormat
+            .fromExtension(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown export format", ENTITY_NAME, "exportformat"));
+        return ResponseEntity
+            .ok()
+            .contentType(MediaType.parseMediaType(fileFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"livres." + fileFormat.getExtension() + "\"")
+            .body(out -> exportService.exportLivres(fileFormat, out));
+    }
+
     /**
      * {@code GET  /livres/:id} : get the "id" livre.
      *
      * @param id the id of the livre to retrieve.
+     * @param request the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} or {@code If-Modified-Since} header is current.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the livre, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/livres/{id}")
-    public ResponseEntity<Livre> getLivre(@PathVariable String id) {
+    public ResponseEntity<Livre> getLivre(@PathVariable String id, WebRequest request) {
         log.debug("REST request to get Livre : {}", id);
+        Optional<Versioned> version = livreService.findVersion(id);
+        if (VersionedResponseUtil.checkNotModified(request, version)) {
+            return null;
+        }
         Optional<Livre> livre = livreService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(livre);
+        return VersionedResponseUtil.wrapOrNotFound(livre, version);
     }
 
     /**
@@ -171,8 +298,18 @@ public class LivreResource {
         livreService.delete(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id)).build();
     }
+
+    /**
+     * {@code GET  /livres-non-emprunter} : get the livres that are not borrowed.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of livres in body.
+     */
     @GetMapping("/livres-non-emprunter")
-    public ResponseEntity<List<Livre>> findAllNotBorrowed (){
-        return ResponseEntity.ok().body(livreService.findAllNotBorrowed());
+    public ResponseEntity<List<Livre>> findAllNotBorrowed(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of not borrowed Livres");
+        Page<Livre> page = livreService.findAllNotBorrowed(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 }
@@ -1,9 +1,14 @@
 package com.mycompany.myapp.web.rest;
 
+import com.mycompany.myapp.domain.Emprunt;
 import com.mycompany.myapp.domain.Loaner;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.repository.LoanerRepository;
+import com.mycompany.myapp.service.EmpruntService;
 import com.mycompany.myapp.service.LoanerService;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.VersionedResponseUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -18,6 +23,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -41,9 +47,12 @@ public class LoanerResource {
 
     private final LoanerRepository loanerRepository;
 
-    public LoanerResource(LoanerService loanerService, LoanerRepository loanerRepository) {
+    private final EmpruntService empruntService;
+
+    public LoanerResource(LoanerService loanerService, LoanerRepository loanerRepository, EmpruntService empruntService) {
         this.loanerService = loanerService;
         this.loanerRepository = loanerRepository;
+        this.empruntService = empruntService;
     }
 
     /**
@@ -135,11 +144,21 @@ public class LoanerResource {
      * {@code GET  /loaners} : get all the loaners.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the slice to read in keyset mode, empty for the first slice: the loaners are then
+     * read in id order, without total count, and the next slice is linked from the headers.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of loaners in body.
      */
     @GetMapping("/loaners")
-    public ResponseEntity<List<Loaner>> getAllLoaners(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Loaner>> getAllLoaners(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "cursor", required = false) String cursor
+    ) {
         log.debug("REST request to get a page of Loaners");
+        if (cursor != null) {
+            KeysetSlice<Loaner> slice = loanerService.findAll(cursor, pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Loaner> page = loanerService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -149,13 +168,39 @@ public class LoanerResource {
      * {@code GET  /loaners/:id} : get the "id" loaner.
      *
      * @param id the id of the loaner to retrieve.
+     * @param request the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} or {@code If-Modified-Since} header is current.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the loaner, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/loaners/{id}")
-    public ResponseEntity<Loaner> getLoaner(@PathVariable String id) {
+    public ResponseEntity<Loaner> getLoaner(@PathVariable String id, WebRequest request) {
         log.debug("REST request to get Loaner : {}", id);
+        if (VersionedResponseUtil.checkNotModified(request, loanerService.findVersion(id))) {
+            return null;
+        }
         Optional<Loaner> loaner = loanerService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(loaner);
+        return VersionedResponseUtil.wrapOrNotFound(loaner);
+    }
+
+    /**
+     * {@code GET  /loaners/:id/emprunts} : get the loan history of the "id" loaner.
+     *
+     * @param id the id of the loaner.
+     * @param pageable the pagination information, most recent emprunts first by default.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of emprunts in body,
+     * or with status {@code 400 (Bad Request)} if the loaner is not found.
+     */
+    @GetMapping("/loaners/{id}/emprunts")
+    public ResponseEntity<List<Emprunt>> getLoanerEmprunts(
+        @PathVariable String id,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of Emprunts of Loaner : {}", id);
+        if (!loanerRepository.existsById(id)) {
+            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        }
+        Page<Emprunt> page = empruntService.findAllByLoaner(id, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
     /**
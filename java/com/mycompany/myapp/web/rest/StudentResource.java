@@ -2,8 +2,11 @@ package com.mycompany.myapp.web.rest;
 
 
 import com.mycompany.myapp.domain.Loaner;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.service.StudentService;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.VersionedResponseUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -17,10 +20,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Student}.
@@ -97,11 +100,21 @@ public class StudentResource {
      * {@code GET  /students} : get all the students.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the slice to read in keyset mode, empty for the first slice: the students are then
+     * read in id order, without total count, and the next slice is linked from the headers.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of students in body.
      */
     @GetMapping("/students")
-    public ResponseEntity<List<Loaner>> getAllStudents(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Loaner>> getAllStudents(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "cursor", required = false) String cursor
+    ) {
         log.debug("REST request to get a page of Students");
+        if (cursor != null) {
+            KeysetSlice<Loaner> slice = studentService.findAll(cursor, pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Loaner> page = studentService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -111,13 +124,17 @@ public class StudentResource {
      * {@code GET  /students/:id} : get the "id" student.
      *
      * @param id the id of the student to retrieve.
+     * @param request the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} or {@code If-Modified-Since} header is current.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the student, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/students/{id}")
-    public ResponseEntity<Loaner> getStudent(@PathVariable String id) {
+    public ResponseEntity<Loaner> getStudent(@PathVariable String id, WebRequest request) {
         log.debug("REST request to get Student : {}", id);
+        if (VersionedResponseUtil.checkNotModified(request, studentService.findVersion(id))) {
+            return null;
+        }
         Optional<Loaner> student = studentService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(student);
+        return VersionedResponseUtil.wrapOrNotFound(student);
     }
 
     /**
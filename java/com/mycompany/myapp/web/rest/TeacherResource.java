@@ -1,8 +1,11 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Loaner;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.service.TeacherService;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.VersionedResponseUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -16,10 +19,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 
 @RestController
@@ -95,11 +98,21 @@ public class TeacherResource {
      * {@code GET  /teachers} : get all the teachers.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the slice to read in keyset mode, empty for the first slice: the teachers are then
+     * read in id order, without total count, and the next slice is linked from the headers.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of teachers in body.
      */
     @GetMapping("/teachers")
-    public ResponseEntity<List<Loaner>> getAllTeachers(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Loaner>> getAllTeachers(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "cursor", required = false) String cursor
+    ) {
         log.debug("REST request to get a page of Teachers");
+        if (cursor != null) {
+            KeysetSlice<Loaner> slice = teacherService.findAll(cursor, pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<Loaner> page = teacherService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -109,13 +122,17 @@ public class TeacherResource {
      * {@code GET  /teachers/:id} : get the "id" teacher.
      *
      * @param id the id of the teacher to retrieve.
+     * @param request the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} or {@code If-Modified-Since} header is current.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the teacher, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/teachers/{id}")
-    public ResponseEntity<Loaner> getTeacher(@PathVariable String id) {
+    public ResponseEntity<Loaner> getTeacher(@PathVariable String id, WebRequest request) {
         log.debug("REST request to get Teacher : {}", id);
+        if (VersionedResponseUtil.checkNotModified(request, teacherService.findVersion(id))) {
+            return null;
+        }
         Optional<Loaner> teacher = teacherService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(teacher);
+        return VersionedResponseUtil.wrapOrNotFound(teacher);
     }
 
     /**
@@ -1,17 +1,25 @@
 package com.mycompany.myapp.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mycompany.myapp.domain.RefreshToken;
 import com.mycompany.myapp.security.jwt.JWTFilter;
 import com.mycompany.myapp.security.jwt.TokenProvider;
+import com.mycompany.myapp.security.ratelimit.RateLimiter;
+import com.mycompany.myapp.service.RefreshTokenService;
 import com.mycompany.myapp.web.rest.vm.LoginVM;
+import com.mycompany.myapp.web.rest.vm.RefreshTokenVM;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -25,13 +33,29 @@ public class UserJWTController {
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public UserJWTController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    private final RefreshTokenService refreshTokenService;
+
+    private final UserDetailsService userDetailsService;
+
+    private final RateLimiter rateLimiter;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        RefreshTokenService refreshTokenService,
+        UserDetailsService userDetailsService,
+        RateLimiter rateLimiter
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.refreshTokenService = refreshTokenService;
+        this.userDetailsService = userDetailsService;
+        this.rateLimiter = rateLimiter;
     }
 
     @PostMapping("/authenticate")
-    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM) {
+    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM, HttpServletRequest request) {
+        rateLimiter.checkLogin(loginVM.getUsername(), request.getRemoteAddr());
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
             loginVM.getUsername(),
             loginVM.getPassword()
@@ -39,10 +63,35 @@ public class UserJWTController {
 
         Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.createToken(authentication, loginVM.isRememberMe());
+        String jwt = tokenProvider.createToken(authentication);
+        String refreshToken = refreshTokenService.create(authentication.getName(), loginVM.isRememberMe());
+        return tokens(jwt, refreshToken);
+    }
+
+    /**
+     * {@code POST  /authenticate/refresh} : exchange a refresh token for a new access token and a new refresh token.
+     * The password is not checked again, but the user must still exist and be activated.
+     *
+     * @param refreshTokenVM the refresh token, which can not be exchanged again.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the new tokens, or status
+     * {@code 401 (Unauthorized)} if the refresh token is not valid.
+     */
+    @PostMapping("/authenticate/refresh")
+    public ResponseEntity<JWTToken> refresh(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        RefreshToken exchanged = refreshTokenService
+            .exchange(refreshTokenVM.getRefreshToken())
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        UserDetails user = userDetailsService.loadUserByUsername(exchanged.getLogin());
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        String jwt = tokenProvider.createToken(authentication);
+        String refreshToken = refreshTokenService.create(exchanged);
+        return tokens(jwt, refreshToken);
+    }
+
+    private ResponseEntity<JWTToken> tokens(String jwt, String refreshToken) {
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
-        return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
+        return new ResponseEntity<>(new JWTToken(jwt, refreshToken), httpHeaders, HttpStatus.OK);
     }
 
     /**
@@ -52,8 +101,11 @@ public class UserJWTController {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -64,5 +116,14 @@ public class UserJWTController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
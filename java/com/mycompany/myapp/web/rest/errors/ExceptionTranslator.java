@@ -1,5 +1,6 @@
 package com.mycompany.myapp.web.rest.errors;
 
+import com.mycompany.myapp.security.TooManyRequestsException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
@@ -14,6 +15,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.validation.BindingResult;
@@ -149,6 +151,64 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(new InvalidPasswordException(), request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleLivreAlreadyBorrowedException(
+        com.mycompany.myapp.service.LivreAlreadyBorrowedException ex,
+        NativeWebRequest request
+    ) {
+        LivreAlreadyBorrowedException problem = new LivreAlreadyBorrowedException();
+        return create(
+            problem,
+            request,
+            HeaderUtil.createFailureAlert(
+                applicationName,
+                false,
+                LivreAlreadyBorrowedException.ENTITY_NAME,
+                LivreAlreadyBorrowedException.ERROR_KEY,
+                ex.getMessage()
+            )
+        );
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleInvalidCursorException(
+        com.mycompany.myapp.service.InvalidCursorException ex,
+        NativeWebRequest request
+    ) {
+        BadRequestAlertException problem = new BadRequestAlertException(ex.getMessage(), ex.getEntityName(), "invalidcursor");
+        return create(
+            problem,
+            request,
+            HeaderUtil.createFailureAlert(applicationName, false, problem.getEntityName(), problem.getErrorKey(), problem.getMessage())
+        );
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleInvalidImportException(
+        com.mycompany.myapp.service.InvalidImportException ex,
+        NativeWebRequest request
+    ) {
+        BadRequestAlertException problem = new BadRequestAlertException(ex.getMessage(), ex.getEntityName(), "invalidimport");
+        return create(
+            problem,
+            request,
+            HeaderUtil.createFailureAlert(applicationName, false, problem.getEntityName(), problem.getErrorKey(), problem.getMessage())
+        );
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleEntityNotFoundException(
+        com.mycompany.myapp.service.EntityNotFoundException ex,
+        NativeWebRequest request
+    ) {
+        BadRequestAlertException problem = new BadRequestAlertException(ex.getMessage(), ex.getEntityName(), "idnotfound");
+        return create(
+            problem,
+            request,
+            HeaderUtil.createFailureAlert(applicationName, false, problem.getEntityName(), problem.getErrorKey(), problem.getMessage())
+        );
+    }
+
     @ExceptionHandler
     public ResponseEntity<Problem> handleBadRequestAlertException(BadRequestAlertException ex, NativeWebRequest request) {
         return create(
@@ -164,6 +224,20 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(ex, problem, request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleTooManyRequests(TooManyRequestsException ex, NativeWebRequest request) {
+        Problem problem = Problem
+            .builder()
+            .withStatus(Status.TOO_MANY_REQUESTS)
+            .withDetail(ex.getMessage())
+            .with(MESSAGE_KEY, ErrorConstants.ERR_TOO_MANY_REQUESTS)
+            .build();
+        HttpHeaders headers = new HttpHeaders();
+        // in whole seconds, rounded up
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000)));
+        return create(ex, problem, request, headers);
+    }
+
     @Override
     public ProblemBuilder prepare(final Throwable throwable, final StatusType status, final URI type) {
         Collection<String> activeProfiles = Arrays.asList(env.getActiveProfiles());
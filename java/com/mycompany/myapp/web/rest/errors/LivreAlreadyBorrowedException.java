@@ -0,0 +1,26 @@
+package com.mycompany.myapp.web.rest.errors;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+public class LivreAlreadyBorrowedException extends AbstractThrowableProblem {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ENTITY_NAME = "emprunt";
+
+    public static final String ERROR_KEY = "livrealreadyborrowed";
+
+    public LivreAlreadyBorrowedException() {
+        super(ErrorConstants.LIVRE_ALREADY_BORROWED_TYPE, "Livre is already borrowed!", Status.CONFLICT, null, null, null, getAlertParameters());
+    }
+
+    private static Map<String, Object> getAlertParameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("message", "error." + ERROR_KEY);
+        parameters.put("params", ENTITY_NAME);
+        return parameters;
+    }
+}
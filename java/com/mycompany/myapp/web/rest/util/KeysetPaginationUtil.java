@@ -0,0 +1,38 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.repository.KeysetSlice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset pagination, the cursor counterpart of
+ * {@link tech.jhipster.web.util.PaginationUtil}.
+ */
+public final class KeysetPaginationUtil {
+
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Generate the headers of a slice: the cursor of the next slice and the matching {@code Link: rel="next"}.
+     * The last slice has no such headers.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the slice.
+     * @return the headers.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, KeysetSlice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.getNextCursor() != null) {
+            String next = uriBuilder
+                .replaceQueryParam("cursor", slice.getNextCursor())
+                .replaceQueryParam("size", slice.getSize())
+                .replaceQueryParam("page")
+                .toUriString();
+            headers.add(HEADER_NEXT_CURSOR, slice.getNextCursor());
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
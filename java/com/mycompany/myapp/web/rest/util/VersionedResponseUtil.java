@@ -0,0 +1,95 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.domain.Versioned;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class for conditional requests on {@link Versioned} entities, the conditional counterpart of
+ * {@link tech.jhipster.web.util.ResponseUtil}.
+ * <p>
+ * Responses carry the version of the entity as {@code ETag} and its last modification date as {@code Last-Modified}.
+ * A request whose {@code If-None-Match} or {@code If-Modified-Since} header matches the current version gets a
+ * {@code 304 (Not Modified)}: the handler then returns {@code null}, and no body is loaded nor serialized.
+ */
+public final class VersionedResponseUtil {
+
+    private VersionedResponseUtil() {}
+
+    /**
+     * Check a request against the current version of an entity. The response is set to {@code 304 (Not Modified)}
+     * when the client copy is current.
+     *
+     * @param request the request.
+     * @param version the current version of the entity, empty if it does not exist.
+     * @return whether the client copy is current.
+     */
+    public static boolean checkNotModified(WebRequest request, Optional<? extends Versioned> version) {
+        return version.isPresent() && request.checkNotModified(eTag(version.get()), lastModified(version.get()));
+    }
+
+    /**
+     * Check a request against the current versions of a list of entities. The response is set to
+     * {@code 304 (Not Modified)} when the client copy is current. Lists have no {@code Last-Modified}: the
+     * deletion of an entity would not move it forward.
+     *
+     * @param request the request.
+     * @param entities the entities of the list, in order.
+     * @param total the total number of entities the list is cut from.
+     * @return whether the client copy is current.
+     */
+    public static boolean checkNotModified(WebRequest request, Collection<? extends Versioned> entities, long total) {
+        long hash = total;
+        for (Versioned entity : entities) {
+            hash = 31 * (31 * hash + Objects.hashCode(entity.getId())) + Objects.hashCode(entity.getVersion());
+        }
+        return request.checkNotModified("\"" + Long.toHexString(hash) + "\"");
+    }
+
+    /**
+     * Wrap an entity in a {@link ResponseEntity} with its {@code ETag} and {@code Last-Modified} headers, or answer
+     * {@code 404 (Not Found)} if it is empty.
+     *
+     * @param entity the entity to return.
+     * @return the response.
+     */
+    public static <X extends Versioned> ResponseEntity<X> wrapOrNotFound(Optional<X> entity) {
+        return entity
+            .map(response -> ResponseEntity.ok().eTag(eTag(response)).lastModified(lastModified(response)).body(response))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Wrap an entity in a {@link ResponseEntity} with the {@code ETag} and {@code Last-Modified} headers of a version,
+     * or answer {@code 404 (Not Found)} if it is empty. The version is the one checked, which may cover the
+     * references embedded in the response.
+     *
+     * @param entity the entity to return.
+     * @param version the version of the entity.
+     * @return the response.
+     */
+    public static <X> ResponseEntity<X> wrapOrNotFound(Optional<X> entity, Optional<? extends Versioned> version) {
+        return entity
+            .map(response -> {
+                ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+                version.ifPresent(current -> builder.eTag(eTag(current)).lastModified(lastModified(current)));
+                return builder.body(response);
+            })
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    private static String eTag(Versioned entity) {
+        return "\"" + Objects.requireNonNullElse(entity.getVersion(), 0L) + "\"";
+    }
+
+    private static long lastModified(Versioned entity) {
+        Instant lastModifiedDate = entity.getLastModifiedDate();
+        return lastModifiedDate == null ? -1 : lastModifiedDate.toEpochMilli();
+    }
+}
@@ -0,0 +1,22 @@
+package com.mycompany.myapp.web.rest.vm;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * View Model object for exchanging a refresh token.
+ */
+public class RefreshTokenVM {
+
+    @NotNull
+    @Size(min = 1, max = 100)
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}